@@ -0,0 +1,83 @@
+package com.polytech.dictionaryapi.benchmark;
+
+import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.service.DictionaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  live search suggestions and fuzzy search of DictionaryService over a synthetic dictionary,
+ *  every path is measured by one thread and by four threads sharing the same service
+ *  typos repeat within a couple of seconds, so fuzzy search is mostly served by fuzzy cache,
+ *  LiveSearchBenchmark compares it with the cost of scoring
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DictionaryServiceBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private DictionaryService dictionaryService;
+    private String[] prefixes;
+    private String[] typos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDictionary dictionary = new SyntheticDictionary(size);
+        dictionaryService = dictionary.newService();
+
+        Random random = new Random(size);
+        List<String> words = dictionary.getWords();
+        prefixes = new String[QUERIES];
+        typos = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            prefixes[i] = word.substring(0, 1 + random.nextInt(Math.min(word.length(), 4)));
+            typos[i] = dictionary.typo(words.get(random.nextInt(words.size())), random);
+        }
+    }
+
+    @Benchmark
+    public List<String> suggestions() {
+        return dictionaryService.getSuggestions(prefixes[ThreadLocalRandom.current().nextInt(QUERIES)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<String> suggestionsConcurrent() {
+        return suggestions();
+    }
+
+    @Benchmark
+    public Page<String> fuzzyEntries() {
+        try {
+            return dictionaryService.getFuzzyEntries(typos[ThreadLocalRandom.current().nextInt(QUERIES)]);
+        } catch (ResourceNotFoundException ex) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Page<String> fuzzyEntriesConcurrent() {
+        return fuzzyEntries();
+    }
+}
@@ -0,0 +1,70 @@
+package com.polytech.dictionaryapi.benchmark;
+
+import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.service.DictionaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  keystrokes of many users typing mistyped words into the search box at once: every keystroke of four letters or more
+ *  is a fuzzy search, like a word lookup that isn't found, eight threads share the same service
+ *  'typos' is amount of distinct mistyped words users type: with a few popular ones concurrent keystrokes are
+ *  coalesced and served by fuzzy cache, with 65536 of them almost every keystroke is a cache miss,
+ *  so it shows cost of a keystroke without the cache, difference of average times is CPU saved per keystroke
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class LiveSearchBenchmark {
+
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "16", "65536" })
+    private int typos;
+
+    private DictionaryService dictionaryService;
+    private String[] typedWords;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticDictionary dictionary = new SyntheticDictionary(size);
+        dictionaryService = dictionary.newService();
+
+        Random random = new Random(size);
+        List<String> words = dictionary.getWords();
+        typedWords = new String[typos];
+        for (int i = 0; i < typos; i++) {
+            typedWords[i] = dictionary.typo(words.get(random.nextInt(words.size())), random);
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Page<String> keystroke() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String word = typedWords[random.nextInt(typos)];
+        int length = word.length() <= MIN_FUZZY_LENGTH ? word.length() : random.nextInt(MIN_FUZZY_LENGTH, word.length() + 1);
+        try {
+            return dictionaryService.getFuzzyEntries(word.substring(0, length));
+        } catch (ResourceNotFoundException ex) {
+            return null;
+        }
+    }
+}
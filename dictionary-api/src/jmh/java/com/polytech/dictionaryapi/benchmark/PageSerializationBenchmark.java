@@ -0,0 +1,146 @@
+package com.polytech.dictionaryapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.LookupResult;
+import com.polytech.dictionaryapi.model.SliceSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ *  Jackson serialization of Page<Entry> as returned by paged endpoints and of LookupResult of a bulk lookup,
+ *  object mappers are configured the same way Spring Boot configures them, page size is ENTRIES_PER_PAGE of DictionaryController
+ *  'format' selects wire format, serializeSpringPage is the default bean serialization of Page that API used before SliceSerializer
+ *  sizes of responses are printed after each trial, gzip ones are compressed with default level like Tomcat does
+ *  dictionary size only affects total amounts in the page, it's kept for comparison with other benchmarks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    private static final int PER_PAGE = 10;
+    private static final int LOOKUP_WORDS = 100;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    @Param({ "json", "smile", "cbor" })
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper springObjectMapper;
+    private Page<Entry> page;
+    private LookupResult lookupResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = newObjectMapper().modulesToInstall(new SimpleModule().addSerializer(new SliceSerializer())).build();
+        springObjectMapper = newObjectMapper().build();
+
+        SyntheticDictionary dictionary = new SyntheticDictionary(LOOKUP_WORDS);
+        Random random = new Random(size);
+        List<Entry> entries = new ArrayList<>(LOOKUP_WORDS);
+        for (String word : dictionary.getWords()) {
+            Entry entry = new Entry();
+            entry.setId((long) random.nextInt(size));
+            entry.setWord(word);
+            entry.setWordtype("n.");
+            entry.setDefinition("The act or process of " + word.toLowerCase() + "ing; a state of being " +
+                    dictionary.typo(word, random).toLowerCase() + ", especially in the manner of early usage.");
+            entries.add(entry);
+        }
+        page = new PageImpl<>(entries.subList(0, PER_PAGE), PageRequest.of(random.nextInt(size / PER_PAGE), PER_PAGE), size);
+
+        //  every fifth word is mistyped and gets suggestions instead of entries
+        Map<String, List<Entry>> foundEntries = new HashMap<>();
+        Map<String, List<String>> suggestions = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i % 5 == 0) {
+                suggestions.put(dictionary.typo(entry.getWord(), random), Collections.singletonList(entry.getWord()));
+            } else {
+                foundEntries.put(entry.getWord(), Collections.singletonList(entry));
+            }
+        }
+        lookupResult = new LookupResult(foundEntries, suggestions);
+    }
+
+    private Jackson2ObjectMapperBuilder newObjectMapper() {
+        JsonFactory factory = "smile".equals(format) ? new SmileFactory()
+                : "cbor".equals(format) ? new CBORFactory()
+                : new JsonFactory();
+        return Jackson2ObjectMapperBuilder.json().factory(factory);
+    }
+
+    @TearDown(Level.Trial)
+    public void printSizes() throws IOException {
+        System.out.println(String.format("%n%s page: %d bytes (gzip %d), Spring page: %d bytes (gzip %d), lookup of %d words: %d bytes (gzip %d)",
+                format, serializePage().length, gzip(serializePage()).length,
+                serializeSpringPage().length, gzip(serializeSpringPage()).length,
+                LOOKUP_WORDS, serializeLookup().length, gzip(serializeLookup()).length));
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length);
+        try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] serializePageConcurrent() throws JsonProcessingException {
+        return serializePage();
+    }
+
+    @Benchmark
+    public byte[] serializeSpringPage() throws JsonProcessingException {
+        return springObjectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePageGzip() throws IOException {
+        return gzip(serializePage());
+    }
+
+    @Benchmark
+    public byte[] serializeLookup() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(lookupResult);
+    }
+}
@@ -0,0 +1,91 @@
+package com.polytech.dictionaryapi.benchmark;
+
+import com.polytech.dictionaryapi.index.WordFrequencyIndex;
+import com.polytech.dictionaryapi.service.DictionaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ *  SyntheticDictionary generates reproducible pronounceable words (2-5 syllables) with OPTED-like amounts of entries per word
+ *  the same size always gives the same words, so results of different runs are comparable
+ */
+public class SyntheticDictionary {
+
+    private static final String[] SYLLABLES = {
+            "a", "ab", "ac", "al", "an", "ar", "ba", "be", "bi", "bo", "ca", "ce", "ci", "co", "da", "de", "di", "do",
+            "e", "el", "en", "er", "es", "fa", "fe", "fi", "ga", "ge", "gi", "ha", "he", "hi", "i", "il", "in", "is",
+            "la", "le", "li", "lo", "ma", "me", "mi", "mo", "na", "ne", "ni", "no", "o", "on", "or", "pa", "pe", "pi",
+            "po", "ra", "re", "ri", "ro", "sa", "se", "si", "so", "ta", "te", "ti", "to", "u", "un", "ur", "va", "ve"
+    };
+    private static final long SEED = 20200430L;
+
+    private final Map<String, Integer> wordCounts;
+    private final List<String> words;
+
+    public SyntheticDictionary(int size) {
+        Random random = new Random(SEED);
+        wordCounts = new HashMap<>(size * 2);
+        while (wordCounts.size() < size) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(4);
+            for (int i = 0; i < syllables; i++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+            wordCounts.put(word.toString(), 1 + random.nextInt(random.nextInt(8) + 1));
+        }
+        words = new ArrayList<>(wordCounts.keySet());
+    }
+
+    public Map<String, Integer> getWordCounts() {
+        return wordCounts;
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    /*
+     *  returns a copy of existing word with two neighbour letters swapped, like a typo of a real user
+     */
+    public String typo(String word, Random random) {
+        if (word.length() < 2) return word;
+        char[] letters = word.toCharArray();
+        int i = random.nextInt(letters.length - 1);
+        char letter = letters[i];
+        letters[i] = letters[i + 1];
+        letters[i + 1] = letter;
+        return new String(letters);
+    }
+
+    public WordFrequencyIndex newIndex() {
+        WordFrequencyIndex index = new WordFrequencyIndex();
+        index.load(wordCounts);
+        return index;
+    }
+
+    /*
+     *  DictionaryService without database, only distinctWords based methods can be called,
+     *  meters are recorded into a simple registry like in production
+     */
+    public DictionaryService newService() {
+        DictionaryService dictionaryService = new DictionaryService();
+        try {
+            Field distinctWords = DictionaryService.class.getDeclaredField("distinctWords");
+            distinctWords.setAccessible(true);
+            distinctWords.set(dictionaryService, newIndex());
+            Field meterRegistry = DictionaryService.class.getDeclaredField("meterRegistry");
+            meterRegistry.setAccessible(true);
+            meterRegistry.set(dictionaryService, new SimpleMeterRegistry());
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Unable to set fields of DictionaryService", ex);
+        }
+        return dictionaryService;
+    }
+}
@@ -0,0 +1,50 @@
+package com.polytech.dictionaryapi.benchmark;
+
+import com.polytech.dictionaryapi.index.WordFrequencyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  distinctWords load done by DictionaryService.getDistinctWords after word counts are read from DB:
+ *  counts map, suggestion trie and fuzzy bigram index are built from scratch
+ *  concurrent variant loads separate indexes in parallel to show allocation and GC pressure
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class WordIndexLoadBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private Map<String, Integer> wordCounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wordCounts = new SyntheticDictionary(size).getWordCounts();
+    }
+
+    @Benchmark
+    public WordFrequencyIndex load() {
+        WordFrequencyIndex index = new WordFrequencyIndex();
+        index.load(wordCounts);
+        return index;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WordFrequencyIndex loadConcurrent() {
+        return load();
+    }
+}
@@ -1,8 +1,17 @@
 package com.polytech.dictionaryapi;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -13,6 +22,66 @@ public class DictionaryApiApplication {
 		SpringApplication.run(DictionaryApiApplication.class, args);
 	}
 
+	//	enables @Timed on DictionaryService methods, controller endpoints are timed by Spring Boot as http.server.requests
+	//	global registry includes registries configured by Spring Boot and is always available, even in test slices
+	@Bean
+	public TimedAspect timedAspect() {
+		return new TimedAspect(Metrics.globalRegistry);
+	}
+
+	//	search endpoints of DictionaryController run on this bounded pool instead of Tomcat workers
+	@Bean
+	public ThreadPoolTaskExecutor searchExecutor(@Value("${dictionary.search.pool-size:8}") int poolSize,
+												 @Value("${dictionary.search.queue-capacity:200}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("search-");
+		return executor;
+	}
+
+	//	senders of GET /entries/changes, a thread is busy only while it drains queue of one subscriber
+	@Bean
+	public ThreadPoolTaskExecutor changeExecutor(@Value("${dictionary.changes.pool-size:4}") int poolSize) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setThreadNamePrefix("changes-");
+		return executor;
+	}
+
+	//	replays of GET /entries/changes read the change log from DB, they don't wait for senders of queued changes
+	@Bean
+	public ThreadPoolTaskExecutor changeReplayExecutor(@Value("${dictionary.changes.replay-pool-size:2}") int poolSize) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setThreadNamePrefix("change-replays-");
+		return executor;
+	}
+
+	//	Spring Boot skips its default executor when any other one is defined, async MVC requests (export) keep using it
+	@Bean
+	public ThreadPoolTaskExecutor applicationTaskExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(8);
+		executor.setThreadNamePrefix("task-");
+		return executor;
+	}
+
+	//	Smile and CBOR are opt-in binary formats selected by Accept header, JSON stays the default for '*/*'
+	//	Spring Boot's builder is a prototype bean, every converter gets its own one with the same modules and settings
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
 	@Bean
 	public WebMvcConfigurer corsConfigurer() {
 		return new WebMvcConfigurer() {
@@ -3,79 +3,311 @@ package com.polytech.dictionaryapi.controller;
 import com.polytech.dictionaryapi.exception.BadResourceException;
 import com.polytech.dictionaryapi.exception.ResourceAlreadyExistsException;
 import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.exporter.ExportFormat;
+import com.polytech.dictionaryapi.importer.ImportFormat;
+import com.polytech.dictionaryapi.model.BatchResult;
 import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.EntryOperation;
+import com.polytech.dictionaryapi.model.ImportReport;
+import com.polytech.dictionaryapi.model.LookupResult;
+import com.polytech.dictionaryapi.model.WordLookup;
+import com.polytech.dictionaryapi.service.ChangeFeed;
 import com.polytech.dictionaryapi.service.DictionaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 public class DictionaryController {
 
     private static final int ENTRIES_PER_PAGE = 10;
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
 
     @Autowired
     private DictionaryService dictionaryService;
 
-    @GetMapping(value = "/entries", produces = MediaType.APPLICATION_JSON_VALUE)
-    public  ResponseEntity<Page<Entry>> getAllEntries(@RequestParam(value = "page", defaultValue = "0") int pageNumber) {
-        return ResponseEntity.ok(dictionaryService.findAll(pageNumber, ENTRIES_PER_PAGE));
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    @Qualifier("searchExecutor")
+    private Executor searchExecutor;
+
+    @Value("${dictionary.search.timeout:5000}")
+    private long searchTimeout;
+
+    @Value("${dictionary.http.max-age:60}")
+    private long cacheMaxAge;
+
+    /*
+     *  conditional GET: ETags are versions of the dictionary (or of a single entry) that every write bumps,
+     *  so a request with matching If-None-Match or If-Modified-Since gets 304 before the service queries anything,
+     *  validators are read before the query and are set only on 200 and 304 responses, not on errors
+     *  ETags are weak: the same version is served as JSON, Smile or CBOR, and Tomcat doesn't compress responses
+     *  with strong ETags, Vary header keeps caches from mixing up the formats
+     *  If-Modified-Since is checked only without If-None-Match, Last-Modified has a granularity of a second, so it's sent
+     *  only once that second is over, a later write then always has a later Last-Modified
+     */
+    private Validators validators(String versionTag) {
+        return new Validators("W/\"" + versionTag + "\"", dictionaryService.getLastModified());
+    }
+
+    private static boolean isNotModified(WebRequest request, Validators validators) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        HttpHeaders conditions = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            conditions.put(HttpHeaders.IF_NONE_MATCH, Arrays.asList(ifNoneMatch));
+            String eTag = weakTag(validators.eTag);
+            return conditions.getIfNoneMatch().stream().anyMatch(tag -> tag.equals("*") || weakTag(tag).equals(eTag));
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null) return false;
+        conditions.set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+        long since = conditions.getIfModifiedSince();
+        return since >= 0 && validators.lastModified / 1000 * 1000 <= since;
+    }
+
+    private static String weakTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
     }
 
-    @GetMapping(value = "/entries/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Entry> getEntryById(@PathVariable Long id) throws ResourceNotFoundException {
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(cacheMaxAge, TimeUnit.SECONDS).cachePublic().mustRevalidate();
+    }
+
+    private <T> ResponseEntity<T> notModified(Validators validators) {
+        return validated(ResponseEntity.status(HttpStatus.NOT_MODIFIED), validators).build();
+    }
+
+    private <T> ResponseEntity<T> cached(Validators validators, T body) {
+        return validated(ResponseEntity.ok(), validators).body(body);
+    }
+
+    private ResponseEntity.BodyBuilder validated(ResponseEntity.BodyBuilder response, Validators validators) {
+        response.cacheControl(cacheControl()).varyBy(HttpHeaders.ACCEPT).eTag(validators.eTag);
+        if (validators.lastModified / 1000 < System.currentTimeMillis() / 1000) response.lastModified(validators.lastModified);
+        return response;
+    }
+
+    private static final class Validators {
+        private final String eTag;
+        private final long lastModified;
+
+        private Validators(String eTag, long lastModified) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /*
+     *  search endpoints run on bounded searchExecutor instead of Tomcat workers, so slow fuzzy and full-text searches
+     *  can't hold all of them, request times out with 503 if search isn't done in time or the executor queue is full,
+     *  exceptions of the search are handled by DictionaryExceptionHandler as usual
+     */
+    private <T> DeferredResult<ResponseEntity<T>> searchAsync(WebRequest request, Validators validators,
+                                                              Callable<ResponseEntity<T>> search) {
+        DeferredResult<ResponseEntity<T>> deferredResult = new DeferredResult<>(searchTimeout, () -> ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE).header("Message", "Search timed out").build());
+        if (isNotModified(request, validators)) {
+            deferredResult.setResult(notModified(validators));
+            return deferredResult;
+        }
+        try {
+            searchExecutor.execute(() -> {
+                try {
+                    deferredResult.setResult(search.call());
+                } catch (Exception ex) {
+                    deferredResult.setErrorResult(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            deferredResult.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Message", "Too many search requests").build());
+        }
+        return deferredResult;
+    }
+
+    @GetMapping(value = "/entries", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public  ResponseEntity<?> getAllEntries(
+            @RequestParam(value = "page", defaultValue = "0") int pageNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "slice", defaultValue = "false") boolean slice,
+            WebRequest request) throws BadResourceException {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        if (isNotModified(request, validators)) return notModified(validators);
+        if (cursor != null) {
+            return cached(validators, dictionaryService.findAll(cursor, ENTRIES_PER_PAGE));
+        } else if (slice) {
+            return cached(validators, dictionaryService.findAllSlice(pageNumber, ENTRIES_PER_PAGE));
+        }
+        return cached(validators, dictionaryService.findAll(pageNumber, ENTRIES_PER_PAGE));
+    }
+
+    @GetMapping(value = "/entries/{id}", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<Entry> getEntryById(@PathVariable Long id, WebRequest request) throws ResourceNotFoundException {
+        Validators validators = validators(dictionaryService.getEntryVersionTag(id));
+        if (isNotModified(request, validators)) return notModified(validators);
         Entry responseEntry = dictionaryService.findById(id);
-        return ResponseEntity.ok(responseEntry);
+        return cached(validators, responseEntry);
     }
 
-    @GetMapping(value = "/entries/letter/{letter}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<Entry>> getEntriesByLetter(
+    @GetMapping(value = "/entries/letter/{letter}", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<?> getEntriesByLetter(
             @RequestParam(value = "page", defaultValue = "0") int pageNumber,
-            @PathVariable char letter) {
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "slice", defaultValue = "false") boolean slice,
+            @PathVariable char letter,
+            WebRequest request) throws BadResourceException {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        if (isNotModified(request, validators)) return notModified(validators);
+        if (cursor != null) {
+            return cached(validators, dictionaryService.findByLetter(letter, cursor, ENTRIES_PER_PAGE));
+        } else if (slice) {
+            return cached(validators, dictionaryService.findByLetterSlice(letter, pageNumber, ENTRIES_PER_PAGE));
+        }
         Page<Entry> responseEntries = dictionaryService.findByLetter(letter, pageNumber, ENTRIES_PER_PAGE);
-        return ResponseEntity.ok(responseEntries);
+        return cached(validators, responseEntries);
     }
 
-    @GetMapping(value = "/entries/word", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<?>> getEntriesByWord(
+    @GetMapping(value = "/entries/word", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public DeferredResult<ResponseEntity<Page<?>>> getEntriesByWord(
             @RequestParam(value = "page", defaultValue = "0") int pageNumber,
-            @RequestParam String word) {
-        try {
-            Page<Entry> responseEntries = dictionaryService.findByWord(word, pageNumber, ENTRIES_PER_PAGE);
-            return ResponseEntity.ok(responseEntries);
-        } catch (ResourceNotFoundException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).header("Message", ex.getMessage()).body(dictionaryService.getFuzzyEntries(word));
-        }
+            @RequestParam String word,
+            WebRequest request) {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        return searchAsync(request, validators, () -> {
+            Page<Entry> responseEntries = dictionaryService.findByWordIfPresent(word, pageNumber, ENTRIES_PER_PAGE);
+            if (responseEntries.hasContent()) {
+                return cached(validators, responseEntries);
+            }
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).header("Message", "Entries not found with word \"" + word + "\"")
+                    .body(dictionaryService.getFuzzyEntries(word));
+        });
+    }
+
+    @GetMapping(value = "/entries/fulltext", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public DeferredResult<ResponseEntity<Page<Entry>>> getEntriesByFullText(
+            @RequestParam(value = "page", defaultValue = "0") int pageNumber,
+            @RequestParam(value = "q") String query,
+            WebRequest request) {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        return searchAsync(request, validators,
+                () -> cached(validators, dictionaryService.findByFullText(query, pageNumber, ENTRIES_PER_PAGE)));
     }
 
-    @GetMapping(value = "/entries/type", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<Entry>> getEntriesByType(
+    @GetMapping(value = "/entries/type", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<?> getEntriesByType(
             @RequestParam(value = "page", defaultValue = "0") int pageNumber,
-            @RequestParam String type) throws ResourceNotFoundException {
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "slice", defaultValue = "false") boolean slice,
+            @RequestParam String type,
+            WebRequest request) throws BadResourceException, ResourceNotFoundException {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        if (isNotModified(request, validators)) return notModified(validators);
+        if (cursor != null) {
+            return cached(validators, dictionaryService.findByType(type, cursor, ENTRIES_PER_PAGE));
+        } else if (slice) {
+            return cached(validators, dictionaryService.findByTypeSlice(type, pageNumber, ENTRIES_PER_PAGE));
+        }
         Page<Entry> responseEntries = dictionaryService.findByType(type, pageNumber, ENTRIES_PER_PAGE);
-        return ResponseEntity.ok(responseEntries);
+        return cached(validators, responseEntries);
     }
 
-    @GetMapping(value = "/entries/word+type", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Page<Entry>> getEntriesByWordAndType(
+    @GetMapping(value = "/entries/word+type", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<?> getEntriesByWordAndType(
             @RequestParam(value = "page", defaultValue = "0") int pageNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "slice", defaultValue = "false") boolean slice,
             @RequestParam String word,
-            @RequestParam String type) throws ResourceNotFoundException {
+            @RequestParam String type,
+            WebRequest request) throws BadResourceException, ResourceNotFoundException {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        if (isNotModified(request, validators)) return notModified(validators);
+        if (cursor != null) {
+            return cached(validators, dictionaryService.findByWordAndType(word, type, cursor, ENTRIES_PER_PAGE));
+        } else if (slice) {
+            return cached(validators, dictionaryService.findByWordAndTypeSlice(word, type, pageNumber, ENTRIES_PER_PAGE));
+        }
         Page<Entry> responseEntries = dictionaryService.findByWordAndType(word, type, pageNumber, ENTRIES_PER_PAGE);
-        return ResponseEntity.ok(responseEntries);
+        return cached(validators, responseEntries);
+    }
+
+    @GetMapping(value = "/entries/search/{input}", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public DeferredResult<ResponseEntity<List<String>>> getSearchSuggestions(@PathVariable String input, WebRequest request) {
+        Validators validators = validators(dictionaryService.getVersionTag());
+        return searchAsync(request, validators, () -> cached(validators, dictionaryService.getSuggestions(input)));
+    }
+
+    /*
+     *  lookup isn't run on searchExecutor: the service spreads fuzzy suggestions of missed words over it,
+     *  waiting for them from a task of the same bounded pool could exhaust it
+     */
+    @PostMapping(value = "/entries/lookup", produces = { MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<LookupResult> lookupWords(@RequestBody List<WordLookup> lookups) throws BadResourceException {
+        return ResponseEntity.ok(dictionaryService.lookupWords(lookups));
+    }
+
+    @PostMapping(value = "/entries/import", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importEntries(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            InputStream body) throws BadResourceException, IOException {
+        return ResponseEntity.ok(dictionaryService.importEntries(body, ImportFormat.of(format)));
     }
 
-    @GetMapping(value = "/entries/search/{input}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<String>> getSearchSuggestions(@PathVariable String input) {
-        return ResponseEntity.ok(dictionaryService.getSuggestions(input));
+    @GetMapping(value = "/entries/export")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "letter", required = false) Character letter,
+            @RequestParam(value = "type", required = false) String type) throws BadResourceException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody responseBody = outputStream -> dictionaryService.exportEntries(outputStream, exportFormat, letter, type);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"dictionary." + exportFormat.getExtension() + "\"")
+                .body(responseBody);
+    }
+
+    @GetMapping(value = "/entries/cache/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Number>> getEntryCacheStats() {
+        return ResponseEntity.ok(dictionaryService.getEntryCacheStats());
+    }
+
+    /*
+     *  replays changes made after 'since' version (or after Last-Event-ID of a reconnecting EventSource) and streams
+     *  new ones, without both only new changes are streamed
+     */
+    @GetMapping(value = "/entries/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId)
+            throws BadResourceException {
+        Long from = since != null ? since : lastEventId;
+        if (from != null && from < 0) throw new BadResourceException("Version must not be negative");
+        SseEmitter emitter = new SseEmitter();
+        changeFeed.subscribe(emitter, from);
+        return emitter;
     }
 
     @PostMapping(value = "/entries")
@@ -85,6 +317,18 @@ public class DictionaryController {
         return ResponseEntity.created(new URI("/entries/" + newEntry.getId())).body(newEntry);
     }
 
+    //  all operations are applied or none of them, a rejected batch is answered with status of its first failed operation
+    @PostMapping(value = "/entries/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResult> applyBatch(@RequestBody List<EntryOperation> operations) throws BadResourceException {
+        BatchResult result = dictionaryService.applyBatch(operations);
+        HttpStatus status = result.isApplied() ? HttpStatus.OK : result.getResults().stream()
+                .map(item -> HttpStatus.valueOf(item.getStatus()))
+                .filter(itemStatus -> itemStatus != HttpStatus.FAILED_DEPENDENCY)
+                .findFirst()
+                .orElse(HttpStatus.BAD_REQUEST);
+        return ResponseEntity.status(status).body(result);
+    }
+
     @PutMapping(value = "/entries/{id}")
     public ResponseEntity<Void> updateEntry(@PathVariable Long id, @Valid @RequestBody Entry updatedEntry)
             throws BadResourceException, ResourceNotFoundException {
@@ -4,6 +4,8 @@ import com.polytech.dictionaryapi.DictionaryApiApplication;
 import com.polytech.dictionaryapi.exception.BadResourceException;
 import com.polytech.dictionaryapi.exception.ResourceAlreadyExistsException;
 import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.logging.LogRateLimiter;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -11,31 +13,64 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  not found, bad resource and already exists errors are expected answers to client mistakes, they're logged at debug
+ *  level without stack trace, other exceptions are logged as warnings with stack trace
+ *  both are rate-limited per exception type, every error is still counted by 'dictionary.errors' counter
+ */
 @ControllerAdvice
 public class DictionaryExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(DictionaryApiApplication.class);
+    private static final LogRateLimiter logRateLimiter = new LogRateLimiter(5, 1, TimeUnit.SECONDS);
 
     @ExceptionHandler(ResourceNotFoundException.class)
     private ResponseEntity<Object> handleNotFound(ResourceNotFoundException ex) {
-        logger.debug("ResourceNotFoundException caught: ", ex);
+        logExpected(ex);
+        countError(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).header("Message", ex.getMessage()).build();
     }
 
     @ExceptionHandler(BadResourceException.class)
     private ResponseEntity<Object> handleBadResource(BadResourceException ex) {
-        logger.debug("BadResourceException caught: ", ex);
+        logExpected(ex);
+        countError(ex);
         return  ResponseEntity.status(HttpStatus.BAD_REQUEST).header("Message", ex.getMessage()).build();
     }
 
     @ExceptionHandler(ResourceAlreadyExistsException.class)
     private ResponseEntity<Object> handleAlreadyExists(ResourceAlreadyExistsException ex) {
-        logger.debug("ResourceAlreadyExistsException caught: ", ex);
+        logExpected(ex);
+        countError(ex);
         return ResponseEntity.status(HttpStatus.CONFLICT).header("Message", ex.getMessage()).build();
     }
 
     @ExceptionHandler(Exception.class)
     private void defaultExceptionHandler(Exception ex) {
-        logger.debug("Exception caught: ", ex);
+        logUnexpected(ex);
+        countError(ex);
+    }
+
+    private static void logExpected(Exception ex) {
+        if (!logger.isDebugEnabled()) return;
+        long suppressed = logRateLimiter.acquire(ex.getClass().getSimpleName());
+        if (suppressed != LogRateLimiter.SUPPRESSED) {
+            logger.debug("{} caught: {} ({} similar suppressed)", ex.getClass().getSimpleName(), ex.getMessage(), suppressed);
+        }
+    }
+
+    private static void logUnexpected(Exception ex) {
+        if (!logger.isWarnEnabled()) return;
+        long suppressed = logRateLimiter.acquire(ex.getClass().getName());
+        if (suppressed != LogRateLimiter.SUPPRESSED) {
+            logger.warn("Exception caught ({} similar suppressed): ", suppressed, ex);
+        }
+    }
+
+    //  global registry is used, Spring Boot adds its registries to it and controller tests don't need any meter registry
+    private static void countError(Exception ex) {
+        Metrics.counter("dictionary.errors", "exception", ex.getClass().getSimpleName()).increment();
     }
 }
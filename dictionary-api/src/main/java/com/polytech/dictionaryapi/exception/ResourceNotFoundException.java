@@ -3,14 +3,18 @@ package com.polytech.dictionaryapi.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/*
+ *  not found is an expected answer for mistyped words, so stack trace isn't filled in: it's logged at debug level only
+ *  and capturing it cost more than the rest of a miss
+ */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
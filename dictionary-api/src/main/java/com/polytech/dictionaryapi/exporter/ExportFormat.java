@@ -0,0 +1,81 @@
+package com.polytech.dictionaryapi.exporter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polytech.dictionaryapi.exception.BadResourceException;
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/*
+ *  ExportFormat writes entries one by one, output of both formats can be imported back with the same format name
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public void writeHeader(Writer writer) {
+        }
+
+        @Override
+        public void write(Entry entry, Writer writer, ObjectMapper objectMapper) throws IOException {
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.write('\n');
+        }
+    },
+    CSV("text/csv;charset=UTF-8", "csv") {
+        @Override
+        public void writeHeader(Writer writer) throws IOException {
+            writer.write("word,wordtype,definition\r\n");
+        }
+
+        @Override
+        public void write(Entry entry, Writer writer, ObjectMapper objectMapper) throws IOException {
+            writeField(entry.getWord(), writer);
+            writer.write(',');
+            writeField(entry.getWordtype(), writer);
+            writer.write(',');
+            writeField(entry.getDefinition(), writer);
+            writer.write("\r\n");
+        }
+
+        private void writeField(String field, Writer writer) throws IOException {
+            if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+                writer.write(field);
+            } else {
+                writer.write('"');
+                writer.write(field.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+    };
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract void writeHeader(Writer writer) throws IOException;
+
+    public abstract void write(Entry entry, Writer writer, ObjectMapper objectMapper) throws IOException;
+
+    public static ExportFormat of(String name) throws BadResourceException {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadResourceException("Unknown export format \"" + name + "\"", ex);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ *  reads RFC 4180 CSV records with word, wordtype and definition columns, optional header row is skipped
+ *  quoted fields may contain commas, line breaks and doubled quotes
+ */
+public class CsvEntryReader implements EntryReader {
+
+    private static final String HEADER = "word,wordtype,definition";
+
+    private final BufferedReader reader;
+    private boolean firstRecord = true;
+
+    public CsvEntryReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public Entry read() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) return null;
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (firstRecord) {
+            firstRecord = false;
+            if (HEADER.equalsIgnoreCase(String.join(",", fields))) return read();
+        }
+
+        Entry entry = new Entry();
+        if (fields.size() == 3) {
+            entry.setWord(fields.get(0));
+            entry.setWordtype(fields.get(1));
+            entry.setDefinition(fields.get(2));
+        }
+        return entry;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int next = reader.read();
+        if (next < 0) return null;
+
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (next >= 0) {
+            char c = (char) next;
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append(c);
+            }
+            next = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.polytech.dictionaryapi.model.ImportReport;
+import com.polytech.dictionaryapi.service.DictionaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/*
+ *  command line import mode: with --import=<file>[,<file>...] option application imports given files and exits
+ *  format is guessed from file extension unless --import.format=<ndjson|csv|opted> is set
+ *  it runs on 'ApplicationIsReady' event after distinct words are loaded, so duplicates are checked against them
+ */
+@Component
+public class EntryImportRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryImportRunner.class);
+
+    @Autowired
+    private ApplicationArguments arguments;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void importFiles() {
+        List<String> files = arguments.getOptionValues("import");
+        if (files == null) return;
+
+        List<String> formats = arguments.getOptionValues("import.format");
+        int exitCode = 0;
+        try {
+            for (String file : files) {
+                for (String fileName : file.split(",")) {
+                    ImportFormat format = formats == null ? ImportFormat.ofFileName(fileName) : ImportFormat.of(formats.get(0));
+                    try (InputStream input = Files.newInputStream(Paths.get(fileName))) {
+                        ImportReport report = dictionaryService.importEntries(input, format);
+                        logger.info("Imported {} as {}: {}", fileName, format, report);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            logger.error("Import failed: ", ex);
+            exitCode = 1;
+        }
+        int finalExitCode = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> finalExitCode));
+    }
+}
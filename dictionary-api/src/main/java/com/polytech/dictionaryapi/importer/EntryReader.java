@@ -0,0 +1,19 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/*
+ *  EntryReader streams entries from import input one record at a time
+ *  a record that can't be parsed is returned as an entry with NULL fields, so it's rejected by validation
+ *  and counted instead of stopping the whole import
+ */
+public interface EntryReader extends Closeable {
+
+    /*
+     *  returns next entry or null when input is over
+     */
+    Entry read() throws IOException;
+}
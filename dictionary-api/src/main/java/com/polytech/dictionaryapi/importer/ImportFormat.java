@@ -0,0 +1,53 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polytech.dictionaryapi.exception.BadResourceException;
+
+import java.io.Reader;
+import java.util.Locale;
+
+public enum ImportFormat {
+
+    NDJSON {
+        @Override
+        public EntryReader newReader(Reader reader, ObjectMapper objectMapper) {
+            return new NdjsonEntryReader(reader, objectMapper);
+        }
+    },
+    CSV {
+        @Override
+        public EntryReader newReader(Reader reader, ObjectMapper objectMapper) {
+            return new CsvEntryReader(reader);
+        }
+    },
+    OPTED {
+        @Override
+        public EntryReader newReader(Reader reader, ObjectMapper objectMapper) {
+            return new OptedEntryReader(reader);
+        }
+    };
+
+    public abstract EntryReader newReader(Reader reader, ObjectMapper objectMapper);
+
+    public static ImportFormat of(String name) throws BadResourceException {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadResourceException("Unknown import format \"" + name + "\"", ex);
+        }
+    }
+
+    /*
+     *  guesses format by file extension: .ndjson/.jsonl, .csv, anything else is treated as OPTED HTML page
+     */
+    public static ImportFormat ofFileName(String fileName) {
+        String lowerCaseName = fileName.toLowerCase(Locale.ROOT);
+        if (lowerCaseName.endsWith(".ndjson") || lowerCaseName.endsWith(".jsonl")) {
+            return NDJSON;
+        } else if (lowerCaseName.endsWith(".csv")) {
+            return CSV;
+        } else {
+            return OPTED;
+        }
+    }
+}
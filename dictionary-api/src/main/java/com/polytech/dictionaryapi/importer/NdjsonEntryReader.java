@@ -0,0 +1,45 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/*
+ *  reads one JSON object {"word": ..., "wordtype": ..., "definition": ...} per line, blank lines are skipped
+ */
+public class NdjsonEntryReader implements EntryReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonEntryReader(Reader reader, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(reader);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Entry read() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) return null;
+        } while (line.trim().isEmpty());
+
+        try {
+            Entry entry = objectMapper.readValue(line, Entry.class);
+            entry.setId(null);
+            return entry;
+        } catch (JsonProcessingException ex) {
+            return new Entry();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ *  reads original OPTED HTML pages, every entry is a paragraph like
+ *  <P><B>Abandon</B> (<I>v. t.</I>) To cast or drive out; to banish; to expel; to reject.</P>
+ *  lines that are not paragraphs (page header, navigation) are skipped, markup inside definitions is removed
+ */
+public class OptedEntryReader implements EntryReader {
+
+    private static final Pattern PARAGRAPH = Pattern.compile(
+            "<P>\\s*<B>(.*?)</B>\\s*\\((?:<I>)?(.*?)(?:</I>)?\\)\\s*(.*?)\\s*</P>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+    private final BufferedReader reader;
+
+    public OptedEntryReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public Entry read() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) return null;
+            line = line.trim();
+        } while (!line.regionMatches(true, 0, "<P>", 0, 3));
+
+        Entry entry = new Entry();
+        Matcher matcher = PARAGRAPH.matcher(line);
+        if (matcher.matches()) {
+            entry.setWord(toText(matcher.group(1)));
+            entry.setWordtype(toText(matcher.group(2)));
+            entry.setDefinition(toText(matcher.group(3)));
+        }
+        return entry;
+    }
+
+    private static String toText(String html) {
+        return TAG.matcher(html).replaceAll("")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&amp;", "&")
+                .trim();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
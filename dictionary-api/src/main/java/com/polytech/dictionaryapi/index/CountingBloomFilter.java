@@ -0,0 +1,87 @@
+package com.polytech.dictionaryapi.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ *  CountingBloomFilter answers whether a word may be in a set: 'false' is always right, 'true' is wrong for about 1%
+ *  of absent words while the set holds no more words than the filter was sized for
+ *  every word sets HASHES of 4-bit counters, sixteen counters are packed into a long and updated with CAS,
+ *  so adding and removing words is lock-free and counters of removed words go back down, unlike bits of a plain filter
+ *  a counter that reached 15 is never decremented again: it can only cause false positives, never false negatives
+ */
+public final class CountingBloomFilter {
+
+    private static final int HASHES = 7;
+    private static final int COUNTERS_PER_WORD = 10;  //  ~1% of false positives with 7 hashes
+    private static final int MIN_COUNTERS = 1 << 10;
+    private static final long MAX_COUNT = 15;
+
+    private final AtomicLongArray counters;
+    private final int mask;
+
+    public CountingBloomFilter(int expectedWords) {
+        long wanted = Math.max(MIN_COUNTERS, (long) expectedWords * COUNTERS_PER_WORD);
+        int size = MIN_COUNTERS;
+        while (size < wanted && size < 1 << 30) size <<= 1;
+        counters = new AtomicLongArray(size / 16);
+        mask = size - 1;
+    }
+
+    public void add(String word) {
+        long hash = hash(word);
+        for (int i = 0; i < HASHES; i++) {
+            update(index(hash, i), 1);
+        }
+    }
+
+    public void remove(String word) {
+        long hash = hash(word);
+        for (int i = 0; i < HASHES; i++) {
+            update(index(hash, i), -1);
+        }
+    }
+
+    public boolean mightContain(String word) {
+        long hash = hash(word);
+        for (int i = 0; i < HASHES; i++) {
+            if (count(index(hash, i)) == 0) return false;
+        }
+        return true;
+    }
+
+    private long count(int index) {
+        return counters.get(index >>> 4) >>> ((index & 15) << 2) & MAX_COUNT;
+    }
+
+    private void update(int index, int delta) {
+        int slot = index >>> 4;
+        int shift = (index & 15) << 2;
+        while (true) {
+            long current = counters.get(slot);
+            long count = current >>> shift & MAX_COUNT;
+            if (count == MAX_COUNT || (count == 0 && delta < 0)) return;
+            long updated = current + ((long) delta << shift);
+            if (counters.compareAndSet(slot, current, updated)) return;
+        }
+    }
+
+    //  double hashing: i-th index is h1 + i * h2, h2 is odd, so indexes of a word are distinct in a power of two table
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + i * h2) & mask;
+    }
+
+    //  64-bit FNV-1a over chars with a final mix, String.hashCode() has only 32 bits and too many collisions for it
+    private static long hash(String word) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash ^= word.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
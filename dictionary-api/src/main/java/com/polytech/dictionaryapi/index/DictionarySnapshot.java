@@ -0,0 +1,439 @@
+package com.polytech.dictionaryapi.index;
+
+import com.polytech.dictionaryapi.model.Entry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/*
+ *  DictionarySnapshot is an immutable in-memory copy of the whole entries table for memory-resident mode
+ *  entries are stored column by column in (word, id) order: ids, words (one String instance per distinct word),
+ *  word type codes of interned type table and UTF-8 definitions packed into a single byte array with offsets
+ *  letter, word and type queries are precomputed arrays of positions, so a page is a range of positions
+ *  and Entry objects are created only for returned entries
+ *  words are compared by code points like "C" collation of entries.word column (schema.sql), so pages and cursors
+ *  are the same as of DB queries
+ *  snapshot is never modified: with(entry) and without(id) return a snapshot sharing the packed columns with an overlay
+ *  of changed entries and hidden positions, query positions are merged with the overlay lazily, once per snapshot,
+ *  overlay of more than MAX_OVERLAY_CHANGES changes is merged into rebuilt columns, a batch is applied with one rebuild
+ *  positions of overlay entries go after positions of packed entries
+ */
+public final class DictionarySnapshot {
+
+    static final int MAX_OVERLAY_CHANGES = 1024;
+
+    private static final int[] NO_POSITIONS = new int[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final long[] ids;
+    private final String[] words;
+    private final short[] typeCodes;
+    private final String[] types;
+    private final byte[] definitions;
+    private final int[] definitionOffsets;
+
+    private final int[] allPositions;
+    private final long[] sortedIds;
+    private final int[] sortedIdPositions;
+    private final Map<Character, int[]> letterPositions;
+    private final Map<String, int[]> wordPositions;
+    private final Map<String, int[]> typePositions;
+
+    //  changed entries in (word, id) order and sorted packed positions of changed or removed entries
+    private final Entry[] overlay;
+    private final int[] hiddenPositions;
+    private final Map<String, int[]> mergedPositions = new ConcurrentHashMap<>();
+
+    private DictionarySnapshot(long[] ids, String[] words, short[] typeCodes, String[] types,
+                               byte[] definitions, int[] definitionOffsets) {
+        this.ids = ids;
+        this.words = words;
+        this.typeCodes = typeCodes;
+        this.types = types;
+        this.definitions = definitions;
+        this.definitionOffsets = definitionOffsets;
+        overlay = NO_ENTRIES;
+        hiddenPositions = NO_POSITIONS;
+
+        allPositions = new int[ids.length];
+        Map<Character, List<Integer>> letters = new HashMap<>();
+        Map<String, List<Integer>> lowerWords = new HashMap<>();
+        Map<String, List<Integer>> lowerTypes = new HashMap<>();
+        for (int position = 0; position < ids.length; position++) {
+            allPositions[position] = position;
+            String lowerWord = words[position].toLowerCase();
+            if (!lowerWord.isEmpty()) letters.computeIfAbsent(lowerWord.charAt(0), key -> new ArrayList<>()).add(position);
+            lowerWords.computeIfAbsent(lowerWord, key -> new ArrayList<>(2)).add(position);
+            lowerTypes.computeIfAbsent(types[typeCodes[position]].toLowerCase(), key -> new ArrayList<>()).add(position);
+        }
+        letterPositions = toPositions(letters);
+        wordPositions = toPositions(lowerWords);
+        typePositions = toPositions(lowerTypes);
+
+        Integer[] idOrder = boxedPositions(ids.length);
+        Arrays.sort(idOrder, (first, second) -> Long.compare(ids[first], ids[second]));
+        sortedIds = new long[ids.length];
+        sortedIdPositions = new int[ids.length];
+        for (int i = 0; i < idOrder.length; i++) {
+            sortedIds[i] = ids[idOrder[i]];
+            sortedIdPositions[i] = idOrder[i];
+        }
+    }
+
+    private DictionarySnapshot(DictionarySnapshot packed, Entry[] overlay, int[] hiddenPositions) {
+        ids = packed.ids;
+        words = packed.words;
+        typeCodes = packed.typeCodes;
+        types = packed.types;
+        definitions = packed.definitions;
+        definitionOffsets = packed.definitionOffsets;
+        allPositions = packed.allPositions;
+        sortedIds = packed.sortedIds;
+        sortedIdPositions = packed.sortedIdPositions;
+        letterPositions = packed.letterPositions;
+        wordPositions = packed.wordPositions;
+        typePositions = packed.typePositions;
+        this.overlay = overlay;
+        this.hiddenPositions = hiddenPositions;
+    }
+
+    private static <K> Map<K, int[]> toPositions(Map<K, List<Integer>> lists) {
+        Map<K, int[]> positions = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> positions.put(key, list.stream().mapToInt(Integer::intValue).toArray()));
+        return positions;
+    }
+
+    private static Integer[] boxedPositions(int size) {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; i++) positions[i] = i;
+        return positions;
+    }
+
+    public static DictionarySnapshot of(Iterable<Entry> entries) {
+        Builder builder = new Builder();
+        entries.forEach(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return ids.length - hiddenPositions.length + overlay.length;
+    }
+
+    public Entry findById(long id) {
+        for (Entry entry : overlay) {
+            if (entry.getId() == id) return copyOf(entry);
+        }
+        int position = packedPosition(id);
+        return position < 0 || Arrays.binarySearch(hiddenPositions, position) >= 0 ? null : entryAt(position);
+    }
+
+    public int[] all() {
+        return positions("all", allPositions, entry -> true);
+    }
+
+    public int[] byLetter(char letter) {
+        char lowerLetter = Character.toLowerCase(letter);
+        return positions("letter:" + lowerLetter, letterPositions.getOrDefault(lowerLetter, NO_POSITIONS), entry -> {
+            String lowerWord = entry.getWord().toLowerCase();
+            return !lowerWord.isEmpty() && lowerWord.charAt(0) == lowerLetter;
+        });
+    }
+
+    //  not kept, positions of a word are few and lookups of many different words would fill the map
+    public int[] byWord(String word) {
+        String lowerWord = word.toLowerCase();
+        return positions(null, wordPositions.getOrDefault(lowerWord, NO_POSITIONS),
+                entry -> entry.getWord().toLowerCase().equals(lowerWord));
+    }
+
+    public int[] byType(String type) {
+        String lowerType = type.toLowerCase();
+        return positions("type:" + lowerType, typePositions.getOrDefault(lowerType, NO_POSITIONS),
+                entry -> entry.getWordtype().toLowerCase().equals(lowerType));
+    }
+
+    public int[] byWordAndType(String word, String type) {
+        return Arrays.stream(byWord(word))
+                .filter(position -> typeAt(position).equalsIgnoreCase(type))
+                .toArray();
+    }
+
+    /*
+     *  returns entries of positions[from, to), bounds are clamped to the positions length
+     */
+    public List<Entry> entries(int[] positions, int from, int to) {
+        int end = Math.min(to, positions.length);
+        List<Entry> entries = new ArrayList<>(Math.max(end - from, 0));
+        for (int i = from; i < end; i++) {
+            entries.add(entryAt(positions[i]));
+        }
+        return entries;
+    }
+
+    /*
+     *  returns index of the first position that goes after (word, id) in positions, that's where keyset page starts
+     */
+    public int seek(int[] positions, String word, long id) {
+        int low = 0, high = positions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = positions[middle];
+            int comparison = compareWords(wordAt(position), word);
+            if (comparison < 0 || comparison == 0 && idAt(position) <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /*
+     *  returns a snapshot with the entry added or, if an entry with the same id exists, replaced
+     */
+    public DictionarySnapshot with(Entry entry) {
+        return withChange(entry.getId(), copyOf(entry));
+    }
+
+    public DictionarySnapshot without(long id) {
+        return withChange(id, null);
+    }
+
+    /*
+     *  applies a whole batch with one rebuild: entries are added or replaced, entries of removed ids are dropped
+     */
+    public DictionarySnapshot with(Collection<Entry> entries, Collection<Long> removedIds) {
+        Set<Long> skippedIds = new HashSet<>(removedIds);
+        entries.forEach(entry -> skippedIds.add(entry.getId()));
+        Builder builder = new Builder();
+        builder.addAll(this, skippedIds::contains);
+        entries.forEach(builder::add);
+        return builder.build();
+    }
+
+    //  hides the packed entry of id and replaces overlay entry of id with 'entry' (null removes it)
+    private DictionarySnapshot withChange(long id, Entry entry) {
+        int[] hidden = hiddenPositions;
+        int position = packedPosition(id);
+        if (position >= 0) {
+            int index = Arrays.binarySearch(hidden, position);
+            if (index < 0) {
+                index = -index - 1;
+                hidden = new int[hiddenPositions.length + 1];
+                System.arraycopy(hiddenPositions, 0, hidden, 0, index);
+                hidden[index] = position;
+                System.arraycopy(hiddenPositions, index, hidden, index + 1, hiddenPositions.length - index);
+            }
+        }
+
+        List<Entry> changed = new ArrayList<>(overlay.length + 1);
+        for (Entry overlayEntry : overlay) {
+            if (overlayEntry.getId() != id) changed.add(overlayEntry);
+        }
+        if (entry != null) {
+            int index = 0;
+            while (index < changed.size() && compare(changed.get(index).getWord(), changed.get(index).getId(), entry.getWord(), id) < 0) {
+                index++;
+            }
+            changed.add(index, entry);
+        }
+
+        DictionarySnapshot modified = new DictionarySnapshot(this, changed.toArray(NO_ENTRIES), hidden);
+        if (changed.size() + hidden.length <= MAX_OVERLAY_CHANGES) return modified;
+        Builder builder = new Builder();
+        builder.addAll(modified, skippedId -> false);
+        return builder.build();
+    }
+
+    /*
+     *  packed positions without hidden ones merged with matching overlay entries, both are in (word, id) order,
+     *  merged positions of a key are computed once per snapshot, packed ones are returned as is while there is no overlay
+     */
+    private int[] positions(String key, int[] packedPositions, Predicate<Entry> overlayFilter) {
+        if (overlay.length == 0 && hiddenPositions.length == 0) return packedPositions;
+        if (key == null) return merge(packedPositions, overlayFilter);
+        return mergedPositions.computeIfAbsent(key, mergedKey -> merge(packedPositions, overlayFilter));
+    }
+
+    private int[] merge(int[] packedPositions, Predicate<Entry> overlayFilter) {
+        int[] merged = new int[packedPositions.length + overlay.length];
+        int size = 0;
+        int hidden = 0;
+        int next = nextOverlay(0, overlayFilter);
+        for (int position : packedPositions) {
+            while (hidden < hiddenPositions.length && hiddenPositions[hidden] < position) hidden++;
+            if (hidden < hiddenPositions.length && hiddenPositions[hidden] == position) continue;
+            while (next < overlay.length && compare(overlay[next].getWord(), overlay[next].getId(), words[position], ids[position]) < 0) {
+                merged[size++] = ids.length + next;
+                next = nextOverlay(next + 1, overlayFilter);
+            }
+            merged[size++] = position;
+        }
+        for (; next < overlay.length; next = nextOverlay(next + 1, overlayFilter)) {
+            merged[size++] = ids.length + next;
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private int nextOverlay(int from, Predicate<Entry> overlayFilter) {
+        int next = from;
+        while (next < overlay.length && !overlayFilter.test(overlay[next])) next++;
+        return next;
+    }
+
+    private int packedPosition(long id) {
+        int index = Arrays.binarySearch(sortedIds, id);
+        return index < 0 ? -1 : sortedIdPositions[index];
+    }
+
+    private String wordAt(int position) {
+        return position < ids.length ? words[position] : overlay[position - ids.length].getWord();
+    }
+
+    private long idAt(int position) {
+        return position < ids.length ? ids[position] : overlay[position - ids.length].getId();
+    }
+
+    private String typeAt(int position) {
+        return position < ids.length ? types[typeCodes[position]] : overlay[position - ids.length].getWordtype();
+    }
+
+    private static int compare(String firstWord, long firstId, String secondWord, long secondId) {
+        int comparison = compareWords(firstWord, secondWord);
+        return comparison != 0 ? comparison : Long.compare(firstId, secondId);
+    }
+
+    /*
+     *  code point order, like "C" collation compares UTF-8 bytes, String.compareTo compares UTF-16 chars and puts
+     *  surrogate pairs (code points above U+FFFF) before chars from U+E000 to U+FFFF
+     */
+    private static int compareWords(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        for (int i = 0; i < length; i++) {
+            char firstChar = first.charAt(i);
+            char secondChar = second.charAt(i);
+            if (firstChar != secondChar) {
+                boolean firstSurrogate = Character.isSurrogate(firstChar);
+                if (firstSurrogate != Character.isSurrogate(secondChar)) return firstSurrogate ? 1 : -1;
+                return firstChar - secondChar;
+            }
+        }
+        return first.length() - second.length();
+    }
+
+    private static Entry copyOf(Entry entry) {
+        Entry copy = new Entry();
+        copy.setId(entry.getId());
+        copy.setWord(entry.getWord());
+        copy.setWordtype(entry.getWordtype());
+        copy.setDefinition(entry.getDefinition());
+        return copy;
+    }
+
+    private Entry entryAt(int position) {
+        if (position >= ids.length) return copyOf(overlay[position - ids.length]);
+        Entry entry = new Entry();
+        entry.setId(ids[position]);
+        entry.setWord(words[position]);
+        entry.setWordtype(types[typeCodes[position]]);
+        entry.setDefinition(new String(definitions, definitionOffsets[position],
+                definitionOffsets[position + 1] - definitionOffsets[position], StandardCharsets.UTF_8));
+        return entry;
+    }
+
+    /*
+     *  Builder collects rows in arbitrary order, build() sorts them by (word, id) and packs them into a snapshot
+     */
+    private static final class Builder {
+
+        private long[] ids = new long[1024];
+        private String[] words = new String[1024];
+        private short[] typeCodes = new short[1024];
+        private int[] definitionOffsets = new int[1025];
+        private byte[] definitions = new byte[64 * 1024];
+        private int size = 0;
+
+        private final Map<String, String> distinctWords = new HashMap<>();
+        private final Map<String, Short> typeTable = new HashMap<>();
+        private final List<String> types = new ArrayList<>();
+
+        void add(Entry entry) {
+            byte[] definition = entry.getDefinition().getBytes(StandardCharsets.UTF_8);
+            add(entry.getId(), entry.getWord(), entry.getWordtype(), definition, 0, definition.length);
+        }
+
+        //  adds entries of the snapshot with its overlay in (word, id) order, so build() sorts them in linear time
+        void addAll(DictionarySnapshot snapshot, LongPredicate skipped) {
+            for (int position : snapshot.all()) {
+                if (skipped.test(snapshot.idAt(position))) continue;
+                if (position >= snapshot.ids.length) {
+                    add(snapshot.overlay[position - snapshot.ids.length]);
+                    continue;
+                }
+                int offset = snapshot.definitionOffsets[position];
+                add(snapshot.ids[position], snapshot.words[position], snapshot.types[snapshot.typeCodes[position]],
+                        snapshot.definitions, offset, snapshot.definitionOffsets[position + 1] - offset);
+            }
+        }
+
+        private void add(long id, String word, String type, byte[] definition, int offset, int length) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                words = Arrays.copyOf(words, size * 2);
+                typeCodes = Arrays.copyOf(typeCodes, size * 2);
+                definitionOffsets = Arrays.copyOf(definitionOffsets, size * 2 + 1);
+            }
+            long definitionsEnd = (long) definitionOffsets[size] + length;
+            if (definitionsEnd > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Definitions don't fit into memory-resident snapshot");
+            }
+            if (definitionsEnd > definitions.length) {
+                definitions = Arrays.copyOf(definitions, (int) Math.min(Math.max(definitionsEnd, definitions.length * 2L), Integer.MAX_VALUE - 8));
+            }
+            ids[size] = id;
+            words[size] = distinctWords.computeIfAbsent(word, key -> key);
+            typeCodes[size] = typeTable.computeIfAbsent(type, key -> {
+                if (types.size() > Short.MAX_VALUE) throw new IllegalStateException("Too many word types for memory-resident snapshot");
+                types.add(key);
+                return (short) (types.size() - 1);
+            });
+            System.arraycopy(definition, offset, definitions, definitionOffsets[size], length);
+            definitionOffsets[size + 1] = (int) definitionsEnd;
+            size++;
+        }
+
+        DictionarySnapshot build() {
+            Integer[] order = boxedPositions(size);
+            Arrays.sort(order, (first, second) -> {
+                return compare(words[first], ids[first], words[second], ids[second]);
+            });
+
+            long[] sortedIds = new long[size];
+            String[] sortedWords = new String[size];
+            short[] sortedTypeCodes = new short[size];
+            byte[] packedDefinitions = new byte[definitionOffsets[size]];
+            int[] packedOffsets = new int[size + 1];
+            for (int position = 0; position < size; position++) {
+                int row = order[position];
+                sortedIds[position] = ids[row];
+                sortedWords[position] = words[row];
+                sortedTypeCodes[position] = typeCodes[row];
+                int length = definitionOffsets[row + 1] - definitionOffsets[row];
+                System.arraycopy(definitions, definitionOffsets[row], packedDefinitions, packedOffsets[position], length);
+                packedOffsets[position + 1] = packedOffsets[position] + length;
+            }
+            return new DictionarySnapshot(sortedIds, sortedWords, sortedTypeCodes, types.toArray(new String[0]),
+                    packedDefinitions, packedOffsets);
+        }
+    }
+}
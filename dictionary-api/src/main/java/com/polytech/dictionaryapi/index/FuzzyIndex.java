@@ -0,0 +1,308 @@
+package com.polytech.dictionaryapi.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ *  FuzzyIndex is a bigram inverted index over distinct words, it narrows fuzzy search candidates before exact scoring
+ *  words are lowercased and split into alphanumeric tokens the same way FuzzySearch preprocesses them,
+ *  every token contributes its bigrams (one letter tokens contribute the letter itself)
+ *
+ *  candidate filter is derived from weighted ratio cutoff of 80 for one token words and queries:
+ *  - ratio >= 80 allows at most d = 0.205 * (|query| + |word|) insertions/deletions, partial ratio >= 89
+ *    (80 after 0.9 scale) allows at most 0.23 * |shorter| of them between the shorter string and its best window
+ *  - a deletion destroys at most two bigrams of a string and an insertion at most one,
+ *    so for ratio every string keeps at least |G| - (1.5 * d -+ 0.5 * length difference) of its bigrams in the other one,
+ *    for partial ratio the window may be cut by the end of the longer string, so the shorter one keeps |G| - 2 * d
+ *  - when lengths differ more than 8 times weighted ratio is scaled down below 80 and the word is skipped
+ *  words are bucketed by length and number of bigrams, a bucket whose words may reach the cutoff without sharing
+ *  any bigram ('ba' and 'bca', 'a' and 'ab') is scored whole, from any other bucket only words sharing enough bigrams are
+ *
+ *  token sort and token set scorers compare reordered tokens, so words and queries of several tokens
+ *  are only filtered by length
+ *
+ *  every word gets an int id (ids of removed words are reused), postings and buckets are growable int arrays of ids,
+ *  so a word costs 4 bytes per bigram instead of a set node, writers are serialized by a write lock, candidate
+ *  queries share a read lock
+ */
+public class FuzzyIndex {
+
+    private static final double MAX_RATIO_DISTANCE = 0.205;
+    private static final double MAX_PARTIAL_DISTANCE = 0.23;
+    private static final double PARTIAL_LENGTH_RATIO = 1.5;
+    private static final double MAX_LENGTH_RATIO = 8;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //  id + 1 of every word, WordCounts keeps only positive values
+    private WordCounts ids = new WordCounts();
+    private String[] words = new String[0];
+    private int nextId;
+    private IdList freeIds = new IdList();
+    private final Map<Integer, IdList> postings = new HashMap<>();
+    //  one token words by bucket(length, number of bigrams)
+    private final Map<Long, IdList> buckets = new HashMap<>();
+    //  words of several tokens by length
+    private final Map<Integer, IdList> tokenizedWords = new HashMap<>();
+
+    public void add(String word) {
+        lock.writeLock().lock();
+        try {
+            addWord(word);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addWord(String word) {
+        if (ids.get(word) != 0) return;
+        int id = freeIds.size > 0 ? freeIds.ids[--freeIds.size] : nextId++;
+        if (id == words.length) words = Arrays.copyOf(words, Math.max(16, id * 2));
+        words[id] = word;
+        ids.set(word, id + 1);
+
+        if (isSingleToken(word)) {
+            int[] grams = grams(word);
+            for (int gram : grams) {
+                postings.computeIfAbsent(gram, key -> new IdList()).add(id);
+            }
+            buckets.computeIfAbsent(bucket(processedLength(word), grams.length), key -> new IdList()).add(id);
+        } else {
+            tokenizedWords.computeIfAbsent(processedLength(word), key -> new IdList()).add(id);
+        }
+    }
+
+    public void remove(String word) {
+        lock.writeLock().lock();
+        try {
+            int id = ids.get(word) - 1;
+            if (id < 0) return;
+            if (isSingleToken(word)) {
+                int[] grams = grams(word);
+                for (int gram : grams) {
+                    removeId(postings, gram, id);
+                }
+                removeId(buckets, bucket(processedLength(word), grams.length), id);
+            } else {
+                removeId(tokenizedWords, processedLength(word), id);
+            }
+            ids.set(word, 0);
+            words[id] = null;
+            freeIds.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static <K> void removeId(Map<K, IdList> lists, K key, int id) {
+        IdList list = lists.get(key);
+        if (list != null && list.remove(id) && list.size == 0) lists.remove(key);
+    }
+
+    //  lists are trimmed after load, later writes grow them again
+    public void load(Collection<String> loadedWords) {
+        lock.writeLock().lock();
+        try {
+            ids = new WordCounts(loadedWords.size());
+            words = new String[Math.max(16, loadedWords.size())];
+            nextId = 0;
+            freeIds = new IdList();
+            postings.clear();
+            buckets.clear();
+            tokenizedWords.clear();
+            loadedWords.forEach(this::addWord);
+            postings.values().forEach(IdList::trim);
+            buckets.values().forEach(IdList::trim);
+            tokenizedWords.values().forEach(IdList::trim);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> candidates(String query) {
+        int[] queryGrams = grams(query);
+        int queryLength = processedLength(query);
+        List<String> candidates = new ArrayList<>();
+        if (queryGrams.length == 0) return candidates;
+
+        lock.readLock().lock();
+        try {
+            tokenizedWords.forEach((length, list) -> {
+                if (lengthsComparable(queryLength, length)) addWords(list, candidates);
+            });
+            if (!isSingleToken(query)) {
+                buckets.forEach((bucket, list) -> {
+                    if (lengthsComparable(queryLength, bucketLength(bucket))) addWords(list, candidates);
+                });
+                return candidates;
+            }
+
+            Map<Integer, int[]> sharedGrams = new HashMap<>();
+            for (int gram : queryGrams) {
+                IdList list = postings.get(gram);
+                if (list == null) continue;
+                for (int i = 0; i < list.size; i++) {
+                    sharedGrams.computeIfAbsent(list.ids[i], key -> new int[1])[0]++;
+                }
+            }
+            sharedGrams.forEach((id, shared) -> {
+                String word = words[id];
+                if (shared[0] >= requiredSharedGrams(queryGrams.length, queryLength, grams(word).length, processedLength(word))) {
+                    candidates.add(word);
+                }
+            });
+            buckets.forEach((bucket, list) -> {
+                if (requiredSharedGrams(queryGrams.length, queryLength, bucketGrams(bucket), bucketLength(bucket)) > 0) return;
+                for (int i = 0; i < list.size; i++) {
+                    if (!sharedGrams.containsKey(list.ids[i])) candidates.add(words[list.ids[i]]);
+                }
+            });
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addWords(IdList list, List<String> candidates) {
+        for (int i = 0; i < list.size; i++) {
+            candidates.add(words[list.ids[i]]);
+        }
+    }
+
+    private static boolean lengthsComparable(int queryLength, int wordLength) {
+        return Math.max(queryLength, wordLength) <= MAX_LENGTH_RATIO * Math.min(queryLength, wordLength);
+    }
+
+    /*
+     *  lower bound of bigrams a one token word shares with a one token query when weighted ratio reaches the cutoff,
+     *  the least one of ratio and partial ratio paths open for these lengths, zero or less means no bigram is needed
+     */
+    private static int requiredSharedGrams(int queryGrams, int queryLength, int wordGrams, int wordLength) {
+        if (!lengthsComparable(queryLength, wordLength)) return UNREACHABLE;
+        int shorter = Math.min(queryLength, wordLength);
+        int longer = Math.max(queryLength, wordLength);
+
+        int required = UNREACHABLE;
+        int maxDistance = (int) (MAX_RATIO_DISTANCE * (queryLength + wordLength));
+        int difference = longer - shorter;
+        if (difference <= maxDistance) {
+            //  both strings keep their bigrams in the other one
+            required = Math.max(keptGrams(queryGrams, queryLength <= wordLength, maxDistance, difference),
+                    keptGrams(wordGrams, wordLength < queryLength, maxDistance, difference));
+        }
+        if (longer >= PARTIAL_LENGTH_RATIO * shorter) {
+            //  a one letter string is found as is in any window containing the letter
+            int shorterGrams = queryLength <= wordLength ? queryGrams : wordGrams;
+            int partial = shorter == 1 ? 0 : shorterGrams - 2 * (int) (MAX_PARTIAL_DISTANCE * shorter);
+            required = Math.min(required, partial);
+        }
+        return required;
+    }
+
+    /*
+     *  transforming shorter string into longer one with d operations takes (d - diff) / 2 deletions and (d + diff) / 2 insertions,
+     *  the longer string loses bigrams the other way around, d has the same parity as diff
+     */
+    private static int keptGrams(int grams, boolean shorter, int maxDistance, int difference) {
+        int distance = maxDistance - (maxDistance - difference) % 2;
+        int destroyed = shorter ? (3 * distance - difference) / 2 : (3 * distance + difference) / 2;
+        return grams - destroyed;
+    }
+
+    private static long bucket(int length, int grams) {
+        return (long) length << 32 | grams;
+    }
+
+    private static int bucketLength(long bucket) {
+        return (int) (bucket >>> 32);
+    }
+
+    private static int bucketGrams(long bucket) {
+        return (int) bucket;
+    }
+
+    static int[] grams(String word) {
+        int[] grams = new int[word.length()];
+        int size = 0;
+        int tokenStart = -1;
+        for (int i = 0; i <= word.length(); i++) {
+            boolean alphanumeric = i < word.length() && Character.isLetterOrDigit(word.charAt(i));
+            if (alphanumeric && tokenStart < 0) {
+                tokenStart = i;
+            } else if (!alphanumeric && tokenStart >= 0) {
+                if (i - tokenStart == 1) {
+                    size = addDistinct(grams, size, gram(word.charAt(tokenStart), '\0'));
+                }
+                for (int j = tokenStart + 1; j < i; j++) {
+                    size = addDistinct(grams, size, gram(word.charAt(j - 1), word.charAt(j)));
+                }
+                tokenStart = -1;
+            }
+        }
+        int[] distinct = new int[size];
+        System.arraycopy(grams, 0, distinct, 0, size);
+        return distinct;
+    }
+
+    private static int gram(char first, char second) {
+        return Character.toLowerCase(first) << 16 | Character.toLowerCase(second);
+    }
+
+    private static int addDistinct(int[] grams, int size, int gram) {
+        for (int i = 0; i < size; i++) {
+            if (grams[i] == gram) return size;
+        }
+        grams[size] = gram;
+        return size + 1;
+    }
+
+    private static boolean isSingleToken(String word) {
+        int start = 0;
+        int end = word.length();
+        while (start < end && !Character.isLetterOrDigit(word.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(word.charAt(end - 1))) end--;
+        for (int i = start; i < end; i++) {
+            if (!Character.isLetterOrDigit(word.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int processedLength(String word) {
+        int start = 0;
+        int end = word.length();
+        while (start < end && !Character.isLetterOrDigit(word.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(word.charAt(end - 1))) end--;
+        return Math.max(end - start, 1);
+    }
+
+    //  unordered, removal moves the last id into the freed place
+    private static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            ids[size++] = id;
+        }
+
+        private boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void trim() {
+            if (size < ids.length) ids = Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.polytech.dictionaryapi.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+ *  SuggestionTrie is a prefix tree over distinct words where every node keeps its own top words by frequency
+ *  so live search answers with a walk of prefix length and returns a precomputed immutable list
+ *  children are stored as sorted char keys with parallel node array to keep nodes compact
+ *  top lists are recomputed only along the path of a changed word by merging already sorted child top lists
+ *  readers never lock: branches and top lists are immutable and published through volatile fields, a top list holds
+ *  copies of words and counts, not nodes, so merging it never sees a node changed by a writer of another stripe
+ *  a writer locks only the stripe of its word's first character, so words of different first characters are updated
+ *  in parallel, root's branch and top are shared by all of them and are replaced under a short root lock
+ *  (lock order is subtree stripes, then root)
+ */
+public class SuggestionTrie {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Branch NO_BRANCH = new Branch(NO_KEYS, NO_NODES);
+    private static final Top NO_TOP = new Top(new String[0], new int[0]);
+
+    private static final int SUBTREE_STRIPES = 64;
+
+    private final int limit;
+    private final Node root = new Node();
+    private final ReentrantLock[] subtreeLocks = new ReentrantLock[SUBTREE_STRIPES];
+    private final ReentrantLock rootLock = new ReentrantLock();
+
+    public SuggestionTrie() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public SuggestionTrie(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("Suggestions limit must be positive");
+        this.limit = limit;
+        for (int i = 0; i < SUBTREE_STRIPES; i++) {
+            subtreeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public List<String> suggest(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node == null ? Collections.emptyList() : node.top.words;
+    }
+
+    public int getCount(String word) {
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            node = node.child(word.charAt(i));
+        }
+        return node == null ? 0 : node.count;
+    }
+
+    /*
+     *  sets amount of entries for a word, zero removes the word from suggestions
+     */
+    public void setCount(String word, int count) {
+        if (count < 0) throw new IllegalArgumentException("Word count can't be negative");
+        if (word.isEmpty()) return;
+
+        ReentrantLock subtreeLock = subtreeLocks[word.charAt(0) % SUBTREE_STRIPES];
+        subtreeLock.lock();
+        try {
+            updateSubtree(word, count);
+        } finally {
+            subtreeLock.unlock();
+        }
+    }
+
+    //  called under the stripe lock of word's first character, so nodes below root are changed by one writer at a time
+    private void updateSubtree(String word, int count) {
+        Node[] path = new Node[word.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < word.length(); i++) {
+            Node next = path[i].child(word.charAt(i));
+            if (next == null) {
+                if (count == 0) return;
+                next = i == 0 ? changeRoot(() -> root.addChild(word.charAt(0))) : path[i].addChild(word.charAt(i));
+            }
+            path[i + 1] = next;
+        }
+
+        Node target = path[word.length()];
+        if (target.count == count) return;
+        target.word = count == 0 ? null : (target.word == null ? word : target.word);
+        target.count = count;
+
+        for (int i = word.length(); i > 0 && path[i].isEmpty(); i--) {
+            if (i == 1) {
+                changeRoot(() -> {
+                    root.removeChild(word.charAt(0));
+                    return null;
+                });
+            } else {
+                path[i - 1].removeChild(word.charAt(i - 1));
+            }
+            path[i] = null;
+        }
+        for (int i = word.length(); i > 0; i--) {
+            if (path[i] != null) recomputeTop(path[i]);
+        }
+        //  every writer merges root top after its own subtree, so the last merge sees all finished subtree updates
+        changeRoot(() -> {
+            recomputeTop(root);
+            return null;
+        });
+    }
+
+    private <T> T changeRoot(Supplier<T> change) {
+        rootLock.lock();
+        try {
+            return change.get();
+        } finally {
+            rootLock.unlock();
+        }
+    }
+
+    public void load(Map<String, Integer> wordCounts) {
+        load(WordCounts.of(wordCounts));
+    }
+
+    /*
+     *  replaces trie content with given word counts, top lists are computed once bottom-up
+     */
+    public void load(WordCounts wordCounts) {
+        Node loaded = new Node();
+        wordCounts.forEach((word, count) -> {
+            if (count <= 0 || word.isEmpty()) return;
+            Node node = loaded;
+            for (int i = 0; i < word.length(); i++) {
+                Node next = node.child(word.charAt(i));
+                node = next == null ? node.addChild(word.charAt(i)) : next;
+            }
+            node.word = word;
+            node.count = count;
+        });
+        recomputeSubtree(loaded);
+
+        for (ReentrantLock subtreeLock : subtreeLocks) {
+            subtreeLock.lock();
+        }
+        try {
+            changeRoot(() -> {
+                root.branch = loaded.branch;
+                root.top = loaded.top;
+                return null;
+            });
+        } finally {
+            for (ReentrantLock subtreeLock : subtreeLocks) {
+                subtreeLock.unlock();
+            }
+        }
+    }
+
+    private void recomputeSubtree(Node node) {
+        for (Node child : node.branch.nodes) {
+            recomputeSubtree(child);
+        }
+        recomputeTop(node);
+    }
+
+    /*
+     *  any word in node's top is either the node's own word or a word from some child's top,
+     *  so k-way merge of sorted child tops limited to 'limit' elements is enough
+     *  node's own word and count are read by the writer of its stripe only, root has no word of its own
+     */
+    private void recomputeTop(Node node) {
+        Node[] children = node.branch.nodes;
+        Top[] childTops = new Top[children.length];
+        for (int i = 0; i < children.length; i++) {
+            childTops[i] = children[i].top;
+        }
+        int[] positions = new int[children.length];
+        String[] mergedWords = new String[limit];
+        int[] mergedCounts = new int[limit];
+        int ownCount = node.count;
+        String ownWord = ownCount > 0 ? node.word : null;
+        int size = 0;
+
+        while (size < limit) {
+            String bestWord = ownWord;
+            int bestCount = ownCount;
+            int bestChild = -1;
+            for (int i = 0; i < childTops.length; i++) {
+                Top childTop = childTops[i];
+                if (positions[i] < childTop.counts.length) {
+                    String word = childTop.words.get(positions[i]);
+                    int count = childTop.counts[positions[i]];
+                    if (bestWord == null || count > bestCount || count == bestCount && word.compareTo(bestWord) < 0) {
+                        bestWord = word;
+                        bestCount = count;
+                        bestChild = i;
+                    }
+                }
+            }
+            if (bestWord == null) break;
+            if (bestChild < 0) {
+                ownWord = null;
+            } else {
+                positions[bestChild]++;
+            }
+            mergedWords[size] = bestWord;
+            mergedCounts[size++] = bestCount;
+        }
+
+        node.top = size == 0 ? NO_TOP : new Top(Arrays.copyOf(mergedWords, size), Arrays.copyOf(mergedCounts, size));
+    }
+
+    private static final class Node {
+        private volatile Branch branch = NO_BRANCH;
+        private volatile Top top = NO_TOP;
+        private volatile int count;
+        private String word;
+
+        private Node child(char key) {
+            Branch current = branch;
+            int index = Arrays.binarySearch(current.keys, key);
+            return index < 0 ? null : current.nodes[index];
+        }
+
+        private Node addChild(char key) {
+            char[] keys = branch.keys;
+            Node[] children = branch.nodes;
+            int index = -(Arrays.binarySearch(keys, key) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, keys.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            Node child = new Node();
+            newKeys[index] = key;
+            newChildren[index] = child;
+            branch = new Branch(newKeys, newChildren);
+            return child;
+        }
+
+        private void removeChild(char key) {
+            char[] keys = branch.keys;
+            Node[] children = branch.nodes;
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) return;
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            branch = newKeys.length == 0 ? NO_BRANCH : new Branch(newKeys, newChildren);
+        }
+
+        private boolean isEmpty() {
+            return count == 0 && branch.nodes.length == 0;
+        }
+    }
+
+    private static final class Branch {
+        private final char[] keys;
+        private final Node[] nodes;
+
+        private Branch(char[] keys, Node[] nodes) {
+            this.keys = keys;
+            this.nodes = nodes;
+        }
+    }
+
+    //  words with their counts at the time the top was merged, sorted by count descending, then by word
+    private static final class Top {
+        private final List<String> words;
+        private final int[] counts;
+
+        private Top(String[] words, int[] counts) {
+            this.words = Collections.unmodifiableList(Arrays.asList(words));
+            this.counts = counts;
+        }
+    }
+}
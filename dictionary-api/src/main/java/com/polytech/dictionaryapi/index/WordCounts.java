@@ -0,0 +1,154 @@
+package com.polytech.dictionaryapi.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/*
+ *  WordCounts is an open-addressing hash table from word to a positive int count: words and counts are kept
+ *  in two parallel arrays with linear probing, so a word costs two array slots instead of a map node and a boxed count
+ *  a count that drops to zero removes the word, removal shifts following slots back, so no tombstones are left
+ *  it's not thread-safe, WordFrequencyIndex guards every instance with its own lock
+ */
+public final class WordCounts {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float MAX_LOAD = 0.75f;
+
+    private String[] words;
+    private int[] counts;
+    private int size;
+
+    public WordCounts() {
+        this(MIN_CAPACITY);
+    }
+
+    public WordCounts(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedSize) capacity <<= 1;
+        words = new String[capacity];
+        counts = new int[capacity];
+    }
+
+    public static WordCounts of(Map<String, Integer> wordCounts) {
+        WordCounts result = new WordCounts(wordCounts.size());
+        wordCounts.forEach(result::add);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(String word) {
+        int slot = find(word);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /*
+     *  adds delta to the count of the word and returns the new count, zero or negative count removes the word
+     */
+    public int add(String word, int delta) {
+        int slot = find(word);
+        return set(word, slot, (slot < 0 ? 0 : counts[slot]) + delta);
+    }
+
+    public int set(String word, int count) {
+        return set(word, find(word), count);
+    }
+
+    private int set(String word, int slot, int count) {
+        if (count <= 0) {
+            if (slot >= 0) remove(slot);
+            return 0;
+        }
+        if (slot >= 0) {
+            counts[slot] = count;
+            return count;
+        }
+        if (size + 1 > words.length * MAX_LOAD) resize(words.length << 1);
+        slot = -find(word) - 1;
+        words[slot] = word;
+        counts[slot] = count;
+        size++;
+        return count;
+    }
+
+    /*
+     *  takes over content of another table, lets a table that is used as a lock keep its identity
+     */
+    void replaceWith(WordCounts other) {
+        words = other.words;
+        counts = other.counts;
+        size = other.size;
+    }
+
+    public void forEach(ObjIntConsumer<String> action) {
+        for (int slot = 0; slot < words.length; slot++) {
+            if (words[slot] != null) action.accept(words[slot], counts[slot]);
+        }
+    }
+
+    public List<String> words() {
+        List<String> result = new ArrayList<>(size);
+        forEach((word, count) -> result.add(word));
+        return result;
+    }
+
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> result = new HashMap<>(size * 4 / 3 + 1);
+        forEach(result::put);
+        return result;
+    }
+
+    /*
+     *  returns slot of the word or (-insertion_slot - 1) if it's absent
+     */
+    private int find(String word) {
+        int mask = words.length - 1;
+        for (int slot = hash(word) & mask; ; slot = (slot + 1) & mask) {
+            String current = words[slot];
+            if (current == null) return -slot - 1;
+            if (current.equals(word)) return slot;
+        }
+    }
+
+    private void remove(int slot) {
+        int mask = words.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; words[next] != null; next = (next + 1) & mask) {
+            int home = hash(words[next]) & mask;
+            //  entry can move to the gap only if the gap lies cyclically between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                words[gap] = words[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+        }
+        words[gap] = null;
+        counts[gap] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        String[] oldWords = words;
+        int[] oldCounts = counts;
+        words = new String[capacity];
+        counts = new int[capacity];
+        for (int slot = 0; slot < oldWords.length; slot++) {
+            if (oldWords[slot] != null) {
+                int newSlot = -find(oldWords[slot]) - 1;
+                words[newSlot] = oldWords[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+
+    //  String.hashCode() of similar words differs in low bits only a little, spreading keeps probe sequences short
+    private static int hash(String word) {
+        int hash = word.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,218 @@
+package com.polytech.dictionaryapi.index;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ *  WordFrequencyIndex keeps {unique_word, amount_of_entries_in_database_with_this_word} for concurrent request threads
+ *  counts are split into lock stripes by word hash, every stripe is a primitive WordCounts table guarded by its own
+ *  monitor, so parallel writes never lose updates, and every dependent structure is updated under the same lock
+ *  which keeps them ordered exactly like the counts themselves
+ *  words() hands out an immutable snapshot that is rebuilt lazily only after the set of words has changed,
+ *  the change flag is raised after the counts are updated, so a snapshot can't miss a word permanently
+ *  wordFilter is a counting Bloom filter over lowercased words, it's sized on load() with room for twice as many words,
+ *  more words only make false positives more frequent
+ */
+public class WordFrequencyIndex {
+
+    private static final int STRIPES = 64;
+
+    private final WordCounts[] stripes = new WordCounts[STRIPES];
+    private final SuggestionTrie suggestionTrie = new SuggestionTrie();
+    private final FuzzyIndex fuzzyIndex = new FuzzyIndex();
+    private volatile CountingBloomFilter wordFilter = new CountingBloomFilter(0);
+    private volatile Set<String> wordsSnapshot = Collections.emptySet();
+    private volatile boolean wordsChanged = false;
+
+    public WordFrequencyIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WordCounts();
+        }
+    }
+
+    private WordCounts stripe(String word) {
+        return stripes[stripeIndex(word)];
+    }
+
+    private static int stripeIndex(String word) {
+        int hash = word.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    public int increment(String word) {
+        WordCounts stripe = stripe(word);
+        int result;
+        synchronized (stripe) {
+            result = stripe.add(word, 1);
+            if (result == 1) {
+                fuzzyIndex.add(word);
+                wordFilter.add(word.toLowerCase());
+            }
+            suggestionTrie.setCount(word, result);
+        }
+        if (result == 1) wordsChanged = true;
+        return result;
+    }
+
+    public int decrement(String word) {
+        WordCounts stripe = stripe(word);
+        int result;
+        synchronized (stripe) {
+            if (stripe.get(word) == 0) return 0;
+            result = stripe.add(word, -1);
+            if (result == 0) {
+                fuzzyIndex.remove(word);
+                wordFilter.remove(word.toLowerCase());
+            }
+            suggestionTrie.setCount(word, result);
+        }
+        if (result == 0) wordsChanged = true;
+        return result;
+    }
+
+    public int getCount(String word) {
+        WordCounts stripe = stripe(word);
+        synchronized (stripe) {
+            return stripe.get(word);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (WordCounts stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /*
+     *  case-insensitive like word queries, 'false' means no word of the index matches
+     */
+    public boolean mightContain(String word) {
+        return wordFilter.mightContain(word.toLowerCase());
+    }
+
+    public List<String> suggest(String prefix) {
+        return suggestionTrie.suggest(prefix);
+    }
+
+    public List<String> fuzzyCandidates(String word) {
+        return fuzzyIndex.candidates(word);
+    }
+
+    public Set<String> words() {
+        if (wordsChanged) {
+            synchronized (this) {
+                if (wordsChanged) {
+                    wordsChanged = false;
+                    Set<String> words = new HashSet<>();
+                    for (WordCounts stripe : stripes) {
+                        synchronized (stripe) {
+                            stripe.forEach((word, count) -> words.add(word));
+                        }
+                    }
+                    wordsSnapshot = Collections.unmodifiableSet(words);
+                }
+            }
+        }
+        return wordsSnapshot;
+    }
+
+    public void load(Map<String, Integer> wordCounts) {
+        load(WordCounts.of(wordCounts));
+    }
+
+    /*
+     *  replaces index content, supposed to be called once on startup before any writes are served
+     */
+    public synchronized void load(WordCounts wordCounts) {
+        WordCounts[] loaded = new WordCounts[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            loaded[i] = new WordCounts(wordCounts.size() / STRIPES);
+        }
+        CountingBloomFilter loadedFilter = new CountingBloomFilter(wordCounts.size() * 2);
+        wordCounts.forEach((word, count) -> {
+            loaded[stripeIndex(word)].set(word, count);
+            loadedFilter.add(word.toLowerCase());
+        });
+        wordFilter = loadedFilter;
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (stripes[i]) {
+                stripes[i].replaceWith(loaded[i]);
+            }
+        }
+        suggestionTrie.load(wordCounts);
+        fuzzyIndex.load(wordCounts.words());
+        wordsChanged = true;
+    }
+
+    public int reconcile(Map<String, Integer> wordCounts) {
+        return reconcile(WordCounts.of(wordCounts));
+    }
+
+    /*
+     *  brings counts to the given ones word by word under the same stripe locks as increment and decrement,
+     *  unlike load() it can run while the index is in use, words that didn't change aren't touched
+     *  returns amount of changed words
+     */
+    public int reconcile(WordCounts wordCounts) {
+        int[] changed = new int[1];
+        wordCounts.forEach((word, count) -> {
+            if (setCount(word, count)) changed[0]++;
+        });
+        for (WordCounts stripe : stripes) {
+            List<String> words;
+            synchronized (stripe) {
+                words = stripe.words();
+            }
+            for (String word : words) {
+                if (wordCounts.get(word) == 0 && setCount(word, 0)) changed[0]++;
+            }
+        }
+        return changed[0];
+    }
+
+    private boolean setCount(String word, int count) {
+        WordCounts stripe = stripe(word);
+        boolean wordSetChanged;
+        synchronized (stripe) {
+            int current = stripe.get(word);
+            if (current == count) return false;
+            stripe.set(word, count);
+            if (current == 0) {
+                fuzzyIndex.add(word);
+                wordFilter.add(word.toLowerCase());
+            }
+            if (count == 0) {
+                fuzzyIndex.remove(word);
+                wordFilter.remove(word.toLowerCase());
+            }
+            wordSetChanged = current == 0 || count == 0;
+            suggestionTrie.setCount(word, count);
+        }
+        if (wordSetChanged) wordsChanged = true;
+        return true;
+    }
+
+    /*
+     *  returns a copy of all counts in a single table, e.g. to be written into a snapshot file
+     */
+    public WordCounts copyCounts() {
+        WordCounts copy = new WordCounts(size());
+        for (WordCounts stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach(copy::set);
+            }
+        }
+        return copy;
+    }
+
+    public Map<String, Integer> toMap() {
+        return copyCounts().toMap();
+    }
+}
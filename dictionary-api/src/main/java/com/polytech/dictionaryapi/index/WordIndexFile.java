@@ -0,0 +1,73 @@
+package com.polytech.dictionaryapi.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/*
+ *  WordIndexFile is a binary snapshot of WordFrequencyIndex counts, it's read through a memory-mapped buffer
+ *  instead of a stream, every word is copied from it into one reused byte array and decoded into a String
+ *  format: magic, version, amount of words, then {unsigned short length, UTF-8 word bytes, int count} per word
+ *  file is written into a temporary file first and moved over the old one, so a reader never sees a partial snapshot
+ */
+public final class WordIndexFile {
+
+    private static final int MAGIC = 0x44574958;   //  "DWIX"
+    private static final int VERSION = 1;
+    private static final int MAX_WORD_BYTES = 0xFFFF;
+
+    private WordIndexFile() {
+    }
+
+    public static WordCounts read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a word index snapshot: " + file);
+            }
+            int size = buffer.getInt();
+            if (size < 0 || size > buffer.remaining() / 6) throw new IOException("Word index snapshot is truncated: " + file);
+            WordCounts wordCounts = new WordCounts(size);
+            byte[] wordBytes = new byte[64];
+            for (int i = 0; i < size; i++) {
+                int length = Short.toUnsignedInt(buffer.getShort());
+                if (length > wordBytes.length) wordBytes = new byte[length];
+                buffer.get(wordBytes, 0, length);
+                wordCounts.set(new String(wordBytes, 0, length, StandardCharsets.UTF_8), buffer.getInt());
+            }
+            return wordCounts;
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("Word index snapshot is truncated: " + file, ex);
+        }
+    }
+
+    public static void write(Path file, WordCounts wordCounts) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                output.write(ByteBuffer.allocate(12).putInt(MAGIC).putInt(VERSION).putInt(wordCounts.size()).array());
+                for (String word : wordCounts.words()) {
+                    byte[] wordBytes = word.getBytes(StandardCharsets.UTF_8);
+                    if (wordBytes.length > MAX_WORD_BYTES) throw new IOException("Word is too long for word index snapshot");
+                    output.writeShort(wordBytes.length);
+                    output.write(wordBytes);
+                    output.writeInt(wordCounts.get(word));
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+}
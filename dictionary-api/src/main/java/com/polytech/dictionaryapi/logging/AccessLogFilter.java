@@ -0,0 +1,73 @@
+package com.polytech.dictionaryapi.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/*
+ *  AccessLogFilter writes one line per request to 'dictionary.access' logger:
+ *  method=GET uri="/entries/word?word=test" status=200 micros=1420 async=true
+ *  searches and export are completed on other threads, their line is written when async request completes,
+ *  so latency includes time in search queue
+ *  set 'logging.level.dictionary.access=OFF' to disable it, then the filter costs one level check per request
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("dictionary.access");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!accessLogger.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response.getStatus(), start, true);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response.getStatus(), start, false);
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, int status, long start, boolean async) {
+        String query = request.getQueryString();
+        accessLogger.info("method={} uri=\"{}{}\" status={} micros={} async={}",
+                request.getMethod(), request.getRequestURI(), query == null ? "" : "?" + query, status,
+                (System.nanoTime() - start) / 1000, async);
+    }
+}
@@ -0,0 +1,63 @@
+package com.polytech.dictionaryapi.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ *  DroppingAsyncAppender is logback AsyncAppender that counts events it drops instead of losing them silently:
+ *  events are formatted and written by a single worker thread, a logging thread only puts an event into a bounded queue
+ *  TRACE, DEBUG and INFO events are dropped when the queue is 80% full ('discardingThreshold'), with 'neverBlock' any event
+ *  is dropped when the queue is full, so a slow disk never stalls request threads
+ *  dropped events are published as 'dictionary.log.dropped' counter, logback is configured before Spring context,
+ *  so global registry is used, registries configured by Spring Boot are added to it later
+ */
+public class DroppingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+    private Counter droppedCounter;
+
+    @Override
+    public void start() {
+        droppedCounter = Metrics.counter("dictionary.log.dropped", "appender", String.valueOf(getName()));
+        super.start();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        //  full queue would drop it in offer() anyway, but without telling anyone
+        //  an event that fills the last free slot concurrently with this check can still be lost uncounted
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            countDropped();
+            return;
+        }
+        super.append(event);
+    }
+
+    //  called only when the queue is below discarding threshold, 'true' means the event is dropped
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) countDropped();
+        return discardable;
+    }
+
+    @Override
+    public void stop() {
+        if (dropped.sum() > 0) addWarn(dropped.sum() + " logging events were dropped by " + getName());
+        super.stop();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void countDropped() {
+        if (dropped.sum() == 0) addWarn("Queue of " + getName() + " is full, logging events are dropped");
+        dropped.increment();
+        if (droppedCounter != null) droppedCounter.increment();
+    }
+}
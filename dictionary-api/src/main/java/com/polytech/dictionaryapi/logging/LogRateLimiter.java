@@ -0,0 +1,61 @@
+package com.polytech.dictionaryapi.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ *  LogRateLimiter lets through at most 'permits' log messages of the same key (exception type) per period,
+ *  the rest are suppressed and only counted, the next permitted message reports how many similar ones were suppressed
+ *  so a burst of expected errors costs a map lookup per error instead of a formatted line in the log
+ */
+public final class LogRateLimiter {
+
+    public static final long SUPPRESSED = -1;
+
+    private final int permits;
+    private final long periodNanos;
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    public LogRateLimiter(int permits, long period, TimeUnit unit) {
+        this.permits = permits;
+        this.periodNanos = unit.toNanos(period);
+    }
+
+    /*
+     *  returns SUPPRESSED if message shouldn't be logged, otherwise amount of messages of this key suppressed since
+     *  the previous permitted one
+     */
+    public long acquire(String key) {
+        return acquire(key, System.nanoTime());
+    }
+
+    long acquire(String key, long now) {
+        return windows.computeIfAbsent(key, k -> new Window(now)).acquire(now);
+    }
+
+    private final class Window {
+
+        private long start;
+        private int used;
+        private long suppressed;
+
+        private Window(long start) {
+            this.start = start;
+        }
+
+        private synchronized long acquire(long now) {
+            if (now - start >= periodNanos) {
+                start = now;
+                used = 0;
+            }
+            if (used == permits) {
+                suppressed++;
+                return SUPPRESSED;
+            }
+            used++;
+            long reported = suppressed;
+            suppressed = 0;
+            return reported;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.polytech.dictionaryapi.model;
+
+import java.util.List;
+
+/*
+ *  BatchResult has a result of every operation of batch request in request order, a batch is applied entirely or not
+ *  at all: if any operation fails, its result tells why (400, 404 or 409) and results of the others are 424 Failed Dependency
+ */
+public class BatchResult {
+
+    private final boolean applied;
+    private final List<Item> results;
+
+    public BatchResult(boolean applied, List<Item> results) {
+        this.applied = applied;
+        this.results = results;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    public static class Item {
+
+        private final int status;
+        private final Long id;
+        private final String message;
+
+        public Item(int status, Long id, String message) {
+            this.status = status;
+            this.id = id;
+            this.message = message;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.polytech.dictionaryapi.model;
+
+import java.util.List;
+
+/*
+ *  CursorPage is a page of keyset pagination, 'next' is a token for the following page or null if it's the last one
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String next;
+
+    public CursorPage(List<T> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
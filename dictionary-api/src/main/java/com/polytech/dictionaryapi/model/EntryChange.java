@@ -0,0 +1,55 @@
+package com.polytech.dictionaryapi.model;
+
+/*
+ *  EntryChange is one row of entry_changes log: 'op' is create, update or delete, word, wordtype and definition
+ *  are contents of the entry after the change (all null for delete), versions grow with every change
+ *  'reload' (id 0, no contents) is logged by bulk import instead of its entries, the whole dictionary has to be read again
+ */
+public class EntryChange {
+
+    private final long version;
+    private final String op;
+    private final long id;
+    private final String word;
+    private final String wordtype;
+    private final String definition;
+    private final long changedAt;
+
+    public EntryChange(long version, String op, long id, String word, String wordtype, String definition, long changedAt) {
+        this.version = version;
+        this.op = op;
+        this.id = id;
+        this.word = word;
+        this.wordtype = wordtype;
+        this.definition = definition;
+        this.changedAt = changedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public String getWordtype() {
+        return wordtype;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public long getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.polytech.dictionaryapi.model;
+
+import com.polytech.dictionaryapi.exception.BadResourceException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ *  EntryCursor is a position in (word, id) order, clients get it as an opaque url-safe token
+ */
+public class EntryCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String word;
+    private final Long id;
+
+    public EntryCursor(String word, Long id) {
+        this.word = word;
+        this.id = id;
+    }
+
+    public static EntryCursor of(Entry entry) {
+        return new EntryCursor(entry.getWord(), entry.getId());
+    }
+
+    public static EntryCursor decode(String token) throws BadResourceException {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            return new EntryCursor(decoded.substring(separatorIndex + 1), Long.parseLong(decoded.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new BadResourceException("Invalid cursor \"" + token + "\"", ex);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id.toString() + SEPARATOR + word).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
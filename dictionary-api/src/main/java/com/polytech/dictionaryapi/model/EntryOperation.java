@@ -0,0 +1,72 @@
+package com.polytech.dictionaryapi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/*
+ *  EntryOperation is one write of batch request, like {"op": "update", "id": 42, "word": ..., "wordtype": ..., "definition": ...}
+ *  create needs word, wordtype and definition, update needs id and all of them, patch needs id and definition,
+ *  delete needs only id
+ */
+public class EntryOperation {
+
+    public enum Type {
+        @JsonProperty("create") CREATE,
+        @JsonProperty("update") UPDATE,
+        @JsonProperty("patch") PATCH,
+        @JsonProperty("delete") DELETE
+    }
+
+    private Type op;
+    private Long id;
+    private String word;
+    private String wordtype;
+    private String definition;
+
+    public EntryOperation() {
+    }
+
+    public EntryOperation(Type op, Long id) {
+        this.op = op;
+        this.id = id;
+    }
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public String getWordtype() {
+        return wordtype;
+    }
+
+    public void setWordtype(String wordtype) {
+        this.wordtype = wordtype;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public void setDefinition(String definition) {
+        this.definition = definition;
+    }
+}
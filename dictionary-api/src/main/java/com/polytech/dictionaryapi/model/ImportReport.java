@@ -0,0 +1,51 @@
+package com.polytech.dictionaryapi.model;
+
+/*
+ *  ImportReport sums up a bulk import: every read record is either inserted, skipped as a duplicate or rejected as invalid
+ */
+public class ImportReport {
+
+    private final long read;
+    private final long inserted;
+    private final long duplicates;
+    private final long rejected;
+    private final long millis;
+
+    public ImportReport(long read, long inserted, long duplicates, long rejected, long millis) {
+        this.read = read;
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        this.rejected = rejected;
+        this.millis = millis;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getRowsPerSecond() {
+        return millis == 0 ? read : read * 1000 / millis;
+    }
+
+    @Override
+    public String toString() {
+        return "read " + read + ", inserted " + inserted + ", duplicates " + duplicates + ", rejected " + rejected +
+                " in " + millis + " ms (" + getRowsPerSecond() + " rows/s)";
+    }
+}
@@ -0,0 +1,26 @@
+package com.polytech.dictionaryapi.model;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ *  LookupResult maps every requested word either to its entries or, if there are none, to fuzzy search suggestions
+ */
+public class LookupResult {
+
+    private final Map<String, List<Entry>> entries;
+    private final Map<String, List<String>> suggestions;
+
+    public LookupResult(Map<String, List<Entry>> entries, Map<String, List<String>> suggestions) {
+        this.entries = entries;
+        this.suggestions = suggestions;
+    }
+
+    public Map<String, List<Entry>> getEntries() {
+        return entries;
+    }
+
+    public Map<String, List<String>> getSuggestions() {
+        return suggestions;
+    }
+}
@@ -0,0 +1,42 @@
+package com.polytech.dictionaryapi.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+
+/*
+ *  SliceSerializer writes pages and slices without 'pageable' and 'sort' objects of default bean serialization,
+ *  they repeat page number and size and are the same for every page of an endpoint, so they're dropped
+ *  field names stay the same, clients that read content, number, totals and first/last flags aren't affected
+ *  it's a @JsonComponent, so it's registered in every ObjectMapper built by Spring Boot, including Smile and CBOR ones
+ */
+@JsonComponent
+public class SliceSerializer extends StdSerializer<Slice<?>> {
+
+    private static final long serialVersionUID = -8065419831584280409L;
+
+    public SliceSerializer() {
+        super(Slice.class, false);
+    }
+
+    @Override
+    public void serialize(Slice<?> slice, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        provider.defaultSerializeField("content", slice.getContent(), generator);
+        generator.writeNumberField("number", slice.getNumber());
+        generator.writeNumberField("size", slice.getSize());
+        generator.writeNumberField("numberOfElements", slice.getNumberOfElements());
+        if (slice instanceof Page) {
+            generator.writeNumberField("totalElements", ((Page<?>) slice).getTotalElements());
+            generator.writeNumberField("totalPages", ((Page<?>) slice).getTotalPages());
+        }
+        generator.writeBooleanField("first", slice.isFirst());
+        generator.writeBooleanField("last", slice.isLast());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,34 @@
+package com.polytech.dictionaryapi.model;
+
+/*
+ *  WordLookup is one word of batch lookup request, type is optional
+ *  it can be written either as {"word": "<word>", "type": "<word_type>"} or as a plain "<word>" string
+ */
+public class WordLookup {
+
+    private String word;
+    private String type;
+
+    public WordLookup() {
+    }
+
+    public WordLookup(String word) {
+        this.word = word;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
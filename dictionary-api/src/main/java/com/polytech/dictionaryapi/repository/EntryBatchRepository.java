@@ -0,0 +1,206 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ *  EntryBatchRepository writes entries with plain JDBC batches, bypassing Hibernate, because IDENTITY ids
+ *  make Hibernate flush every insert on its own
+ *  ids come from entries id sequence (bigserial default), update counts are kept per row, so
+ *  reWriteBatchedInserts driver option isn't needed
+ *  duplicates of existing entries and of earlier entries of the same batch are skipped by unique index of content hash,
+ *  with ON CONFLICT DO NOTHING on insert and by rolling back to a savepoint on update, their update count is 0
+ *  rows of import aren't logged one by one to entry_changes, a batch logs a single 'reload' change instead
+ */
+@Repository
+public class EntryBatchRepository {
+
+    private static final String INSERT_ENTRY = "INSERT INTO entries (word, wordtype, definition) VALUES (?, ?, ?) " +
+            "ON CONFLICT (content_hash) DO NOTHING";
+    private static final String INSERT_ENTRY_WITH_ID = "INSERT INTO entries (id, word, wordtype, definition) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (content_hash) DO NOTHING";
+    private static final String UPDATE_ENTRY = "UPDATE entries SET word = ?, wordtype = ?, definition = ? WHERE id = ?";
+    private static final String SAVEPOINT = "SAVEPOINT entries_update";
+    private static final String ROLLBACK_TO_SAVEPOINT = "ROLLBACK TO SAVEPOINT entries_update";
+    private static final String RELEASE_SAVEPOINT = "RELEASE SAVEPOINT entries_update";
+    private static final String SELECT_BY_IDS = "SELECT id, word, wordtype, definition FROM entries WHERE id = ANY (?)";
+    private static final String SELECT_FOR_UPDATE = "SELECT id, word, wordtype, definition FROM entries WHERE id = ANY (?) FOR UPDATE";
+    private static final String DELETE_BY_IDS = "DELETE FROM entries WHERE id = ANY (?)";
+    //  checked by log_entry_change trigger (see schema.sql), 'true' keeps the setting only until the end of transaction
+    private static final String SKIP_CHANGE_LOG = "SELECT set_config('dictionary.bulk_import', 'on', true)";
+    private static final String LOG_RELOAD = "INSERT INTO entry_changes (operation, entry_id) VALUES ('reload', 0)";
+    private static final String NEXT_IDS = "SELECT nextval(pg_get_serial_sequence('entries', 'id')) FROM generate_series(1, ?)";
+
+    private static final RowMapper<Entry> ENTRY_ROW_MAPPER = (resultSet, rowNumber) -> {
+        Entry entry = new Entry();
+        entry.setId(resultSet.getLong("id"));
+        entry.setWord(resultSet.getString("word"));
+        entry.setWordtype(resultSet.getString("wordtype"));
+        entry.setDefinition(resultSet.getString("definition"));
+        return entry;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //  returns entries that were inserted, in the same order, without ids
+    @Transactional
+    public List<Entry> insertAll(List<Entry> entries) {
+        if (entries.isEmpty()) return Collections.emptyList();
+
+        jdbcTemplate.queryForObject(SKIP_CHANGE_LOG, String.class);
+        int[] updateCounts = jdbcTemplate.batchUpdate(INSERT_ENTRY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Entry entry = entries.get(i);
+                statement.setString(1, entry.getWord());
+                statement.setString(2, entry.getWordtype());
+                statement.setString(3, entry.getDefinition());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        List<Entry> inserted = new ArrayList<>(entries.size());
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] != 0) inserted.add(entries.get(i));  //  SUCCESS_NO_INFO is counted as inserted
+        }
+        if (!inserted.isEmpty()) jdbcTemplate.update(LOG_RELOAD);
+        return inserted;
+    }
+
+    //  reads committed state of entries, ids that aren't found are missing in the result
+    public List<Entry> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_IDS);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, ENTRY_ROW_MAPPER);
+    }
+
+    /*
+     *  methods below are parts of batch write of DictionaryService.applyBatch, they have to be called in its transaction
+     */
+
+    //  reads entries and locks them until the end of transaction, so they can't change between the read and the write
+    public List<Entry> findAllByIdsForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) return Collections.emptyList();
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_FOR_UPDATE);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, ENTRY_ROW_MAPPER);
+    }
+
+    public int deleteAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(DELETE_BY_IDS);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    //  takes 'count' ids from entries id sequence in one round trip
+    public List<Long> nextIds(int count) {
+        if (count == 0) return Collections.emptyList();
+        return jdbcTemplate.queryForList(NEXT_IDS, Long.class, count);
+    }
+
+    //  like insertAll, but ids are given, returns 'false' for entries skipped as duplicates
+    public boolean[] insertAllWithIds(List<Entry> entries) {
+        boolean[] inserted = new boolean[entries.size()];
+        if (entries.isEmpty()) return inserted;
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(INSERT_ENTRY_WITH_ID, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                Entry entry = entries.get(i);
+                statement.setLong(1, entry.getId());
+                statement.setString(2, entry.getWord());
+                statement.setString(3, entry.getWordtype());
+                statement.setString(4, entry.getDefinition());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            inserted[i] = updateCounts[i] != 0;
+        }
+        return inserted;
+    }
+
+    /*
+     *  updates entries in place, in the given order, returns 'false' for entries skipped as duplicates
+     *  unique index of content hash rejects a duplicate, even of an entry written by a transaction that isn't committed
+     *  yet (the update waits for it), but a rejected statement aborts the whole batch, so the batch runs under
+     *  a savepoint and, if it's rejected, entries are updated again one by one, each under its own savepoint
+     */
+    public boolean[] updateAll(List<Entry> entries) {
+        boolean[] updated = new boolean[entries.size()];
+        if (entries.isEmpty()) return updated;
+
+        jdbcTemplate.execute(SAVEPOINT);
+        try {
+            int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_ENTRY, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    setUpdateValues(statement, entries.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            });
+            jdbcTemplate.execute(RELEASE_SAVEPOINT);
+            for (int i = 0; i < updateCounts.length; i++) {
+                updated[i] = updateCounts[i] != 0;
+            }
+            return updated;
+        } catch (DuplicateKeyException ex) {
+            jdbcTemplate.execute(ROLLBACK_TO_SAVEPOINT);
+            jdbcTemplate.execute(RELEASE_SAVEPOINT);
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            jdbcTemplate.execute(SAVEPOINT);
+            try {
+                updated[i] = jdbcTemplate.update(UPDATE_ENTRY, statement -> setUpdateValues(statement, entry)) != 0;
+            } catch (DuplicateKeyException ex) {
+                jdbcTemplate.execute(ROLLBACK_TO_SAVEPOINT);
+            }
+            jdbcTemplate.execute(RELEASE_SAVEPOINT);
+        }
+        return updated;
+    }
+
+    private static void setUpdateValues(PreparedStatement statement, Entry entry) throws SQLException {
+        statement.setString(1, entry.getWord());
+        statement.setString(2, entry.getWordtype());
+        statement.setString(3, entry.getDefinition());
+        statement.setLong(4, entry.getId());
+    }
+}
@@ -0,0 +1,94 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.EntryChange;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ *  EntryChangeRepository reads entry_changes log, it's written by a trigger of entries table (schema.sql),
+ *  so every committed write has its change rows committed in the same transaction
+ *  versions are taken from entry_changes_version_seq when a transaction writes, not when it commits, ChangeFeed
+ *  pairs the last taken version with transactions writing the log to find out when all of them are committed
+ *  or rolled back
+ */
+@Repository
+public class EntryChangeRepository {
+
+    private static final String SELECT_AFTER = "SELECT version, operation, entry_id, word, wordtype, definition, changed_at " +
+            "FROM entry_changes WHERE version > ? AND version <= ? ORDER BY version LIMIT ?";
+    private static final String SELECT_LAST_VERSION = "SELECT coalesce(max(version), 0) FROM entry_changes";
+    private static final String SELECT_FIRST_VERSION = "SELECT coalesce(min(version), 0) FROM entry_changes";
+    private static final String SELECT_TAKEN_VERSION = "SELECT CASE WHEN is_called THEN last_value ELSE 0 END " +
+            "FROM entry_changes_version_seq";
+    //  a transaction locks entry_changes before it takes a version and holds the lock and its own transaction id lock
+    //  until it ends
+    private static final String SELECT_WRITING_TRANSACTIONS = "SELECT DISTINCT own.transactionid::text::bigint " +
+            "FROM pg_locks own JOIN pg_locks log ON log.pid = own.pid " +
+            "WHERE own.locktype = 'transactionid' AND own.granted " +
+            "AND log.relation = 'entry_changes'::regclass AND log.mode = 'RowExclusiveLock' AND log.granted";
+    private static final String SELECT_RUNNING_TRANSACTIONS = "SELECT transactionid::text::bigint FROM pg_locks " +
+            "WHERE locktype = 'transactionid' AND granted AND transactionid::text::bigint = ANY (?)";
+    //  deletes everything below the newest expired change, so the log is never emptied and its first version tells
+    //  which 'since' can still be replayed
+    private static final String DELETE_EXPIRED = "DELETE FROM entry_changes WHERE version < (SELECT max(version) " +
+            "FROM entry_changes WHERE version <= ? AND changed_at < now() - ? * interval '1 day')";
+
+    private static final RowMapper<EntryChange> CHANGE_ROW_MAPPER = (resultSet, rowNumber) -> new EntryChange(
+            resultSet.getLong("version"),
+            resultSet.getString("operation"),
+            resultSet.getLong("entry_id"),
+            resultSet.getString("word"),
+            resultSet.getString("wordtype"),
+            resultSet.getString("definition"),
+            resultSet.getTimestamp("changed_at").getTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //  returns at most 'limit' changes with versions in (after, upTo] in version order
+    public List<EntryChange> findAfter(long after, long upTo, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, CHANGE_ROW_MAPPER, after, upTo, limit);
+    }
+
+    public long findLastVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_LAST_VERSION, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    //  first version left by pruning, 0 if the log is empty
+    public long findFirstVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_FIRST_VERSION, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    //  last version taken from the sequence, including ones of running and rolled back transactions
+    public long findTakenVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_TAKEN_VERSION, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    //  ids of transactions that have written entry_changes and are still running
+    public List<Long> findWritingTransactions() {
+        return jdbcTemplate.queryForList(SELECT_WRITING_TRANSACTIONS, Long.class);
+    }
+
+    //  ids of the given transactions that are still running
+    public List<Long> findRunningTransactions(Collection<Long> transactionIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_RUNNING_TRANSACTIONS);
+            statement.setArray(1, connection.createArrayOf("bigint", transactionIds.toArray()));
+            return statement;
+        }, (resultSet, rowNumber) -> resultSet.getLong(1));
+    }
+
+    //  deletes changes older than 'retentionDays' with versions up to 'upTo', returns the number of deleted changes
+    public int deleteExpired(long upTo, int retentionDays) {
+        return jdbcTemplate.update(DELETE_EXPIRED, upTo, retentionDays);
+    }
+}
@@ -0,0 +1,160 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.specification.EntrySpecification;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.QueryParameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ *  EntryIndexVerifier checks that every EntrySpecification filter and EntryRepository native query can be served
+ *  by an index from schema.sql
+ *  lookups are built from specifications the way DictionaryService combines them and run with representative
+ *  parameters in a session that captures SQL generated by Hibernate, then the captured SQL is explained with the same
+ *  parameters. Sequential scans are disabled for the check, so a 'Seq Scan' in the plan means there is no usable
+ *  index at all (small tables are scanned sequentially by the planner anyway, that's not what we are looking for)
+ */
+@Component
+public class EntryIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryIndexVerifier.class);
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @EventListener(ApplicationReadyEvent.class)
+    private void verifyIndexes() {
+        try {
+            findUnindexedSpecifications().forEach(specification -> logger.warn(
+                    "Entries lookup {} is not backed by any index, check schema.sql", specification));
+        } catch (Exception ex) {
+            logger.warn("Unable to verify entries indexes: ", ex);
+        }
+    }
+
+    public List<String> findUnindexedSpecifications() {
+        List<String> statements = new ArrayList<>();
+        try (Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    statements.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            List<String> unindexed = new ArrayList<>();
+            //  rolled back, so nothing of the check outlives it
+            session.beginTransaction();
+            try {
+                session.doWork(connection -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET LOCAL enable_seqscan = off");
+                    }
+                });
+                for (Map.Entry<String, Query> lookup : lookups(session).entrySet()) {
+                    statements.clear();
+                    lookup.getValue().getResultList();
+                    String sql = statements.get(statements.size() - 1);
+                    List<Object> parameters = parameterValues(lookup.getValue());
+                    StringBuilder plan = new StringBuilder();
+                    session.doWork(connection -> {
+                        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                            for (int i = 0; i < parameters.size(); i++) {
+                                statement.setObject(i + 1, parameters.get(i));
+                            }
+                            try (ResultSet resultSet = statement.executeQuery()) {
+                                while (resultSet.next()) {
+                                    plan.append(resultSet.getString(1)).append('\n');
+                                }
+                            }
+                        }
+                    });
+                    logger.debug("Plan for entries lookup {}:\n{}\n{}", lookup.getKey(), sql, plan);
+                    if (plan.indexOf("Seq Scan on entries") >= 0) unindexed.add(lookup.getKey());
+                }
+            } finally {
+                session.getTransaction().rollback();
+            }
+            return unindexed;
+        }
+    }
+
+    private static Map<String, Query> lookups(Session session) {
+        Map<String, Query> lookups = new LinkedHashMap<>();
+        lookups.put("orderByWord", page(session, EntrySpecification.orderByWord()));
+        lookups.put("getEntriesByWord", page(session, Specification.where(EntrySpecification.getEntriesByWord("word"))
+                .and(EntrySpecification.orderByWord())));
+        lookups.put("getEntriesByWords", EntryRepositoryCustomImpl.createQuery(session,
+                EntrySpecification.getEntriesByWords(Arrays.asList("word", "test")).and(EntrySpecification.orderByWordAndId())));
+        lookups.put("getEntriesByType", page(session, Specification.where(EntrySpecification.getEntriesByType("n."))
+                .and(EntrySpecification.orderByWord())));
+        lookups.put("getEntriesByLetter", page(session, Specification.where(EntrySpecification.getEntriesByLetter('w'))
+                .and(EntrySpecification.orderByWord())));
+        lookups.put("getEntriesAfter", EntryRepositoryCustomImpl.createQuery(session,
+                Specification.where(EntrySpecification.orderByWordAndId()).and(EntrySpecification.getEntriesAfter("word", 1L)))
+                .setMaxResults(PAGE_SIZE + 1));
+        lookups.put("findByFullText", session.createNativeQuery(fullTextQuery())
+                .setParameter("query", "word")
+                .setMaxResults(PAGE_SIZE));
+        return lookups;
+    }
+
+    private static Query page(Session session, Specification<Entry> specification) {
+        return EntryRepositoryCustomImpl.createQuery(session, specification)
+                .setFirstResult(PAGE_SIZE)
+                .setMaxResults(PAGE_SIZE);
+    }
+
+    private static String fullTextQuery() {
+        try {
+            return EntryRepository.class.getMethod("findByFullText", String.class, Pageable.class)
+                    .getAnnotation(org.springframework.data.jpa.repository.Query.class)
+                    .value();
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /*
+     *  values in the order of their placeholders in generated SQL: query parameters in the order they appear
+     *  in the query (list parameters are expanded in place), then limit and offset appended by PostgreSQL dialect
+     */
+    private static List<Object> parameterValues(Query query) {
+        org.hibernate.query.Query<?> hibernateQuery = query.unwrap(org.hibernate.query.Query.class);
+        List<QueryParameter<?>> parameters = new ArrayList<>(hibernateQuery.getParameterMetadata().collectAllParameters());
+        parameters.sort(Comparator.comparingInt(parameter -> parameter.getSourceLocations()[0]));
+        List<Object> values = new ArrayList<>();
+        for (QueryParameter<?> parameter : parameters) {
+            Object value = hibernateQuery.getParameterValue(parameter);
+            if (value instanceof Collection) {
+                values.addAll((Collection<?>) value);
+            } else {
+                values.add(value);
+            }
+        }
+        if (query.getMaxResults() != Integer.MAX_VALUE) values.add(query.getMaxResults());
+        if (query.getFirstResult() > 0) values.add(query.getFirstResult());
+        return values;
+    }
+}
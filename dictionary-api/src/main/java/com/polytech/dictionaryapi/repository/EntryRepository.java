@@ -1,10 +1,24 @@
 package com.polytech.dictionaryapi.repository;
 
 import com.polytech.dictionaryapi.model.Entry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface EntryRepository extends JpaRepository<Entry,Long>, JpaSpecificationExecutor<Entry> {
+public interface EntryRepository extends JpaRepository<Entry,Long>, JpaSpecificationExecutor<Entry>, EntryRepositoryCustom {
+
+    /*
+     *  search_vector column and its GIN index are defined in schema.sql, query supports web search syntax:
+     *  quoted phrases, 'or' and '-' for excluded words
+     */
+    @Query(value = "SELECT e.id, e.word, e.wordtype, e.definition FROM entries e, websearch_to_tsquery('english', :query) q " +
+            "WHERE e.search_vector @@ q ORDER BY ts_rank(e.search_vector, q) DESC, e.id",
+            countQuery = "SELECT count(*) FROM entries e WHERE e.search_vector @@ websearch_to_tsquery('english', :query)",
+            nativeQuery = true)
+    Page<Entry> findByFullText(@Param("query") String query, Pageable pageable);
 }
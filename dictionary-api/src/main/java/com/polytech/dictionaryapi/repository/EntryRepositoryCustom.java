@@ -0,0 +1,40 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface EntryRepositoryCustom {
+
+    /*
+     *  returns at most 'limit' entries matching specification without count query and without OFFSET,
+     *  order is defined by specification itself
+     */
+    List<Entry> findTop(Specification<Entry> specification, int limit);
+
+    /*
+     *  returns requested page as a slice, one extra entry is fetched to know whether next page exists,
+     *  so unlike findAll(Specification, Pageable) it never runs a count query
+     */
+    Slice<Entry> findSlice(Specification<Entry> specification, Pageable pageable);
+
+    /*
+     *  streams entries from a server-side cursor fetching 'fetchSize' rows at a time, every entry is detached
+     *  before it's passed downstream, so persistence context doesn't grow with the stream
+     *  PostgreSQL uses a cursor only inside a transaction, caller has to be @Transactional and has to close the stream
+     */
+    Stream<Entry> streamAll(Specification<Entry> specification, int fetchSize);
+
+    /*
+     *  inserts entry with a single 'INSERT ... ON CONFLICT DO NOTHING RETURNING id' statement, returns generated id
+     *  or nothing if the same entry (same word, type and definition, case included) already exists, unique index of
+     *  content hash makes it atomic, so concurrent inserts of the same entry can't both succeed
+     *  entry itself isn't modified and doesn't become managed, id of the entry is ignored
+     */
+    Optional<Long> insertIfAbsent(Entry entry);
+}
@@ -0,0 +1,78 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class EntryRepositoryCustomImpl implements EntryRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT = "INSERT INTO entries (word, wordtype, definition) VALUES (?1, ?2, ?3) " +
+            "ON CONFLICT (content_hash) DO NOTHING RETURNING id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Entry> findTop(Specification<Entry> specification, int limit) {
+        return createQuery(entityManager, specification)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Slice<Entry> findSlice(Specification<Entry> specification, Pageable pageable) {
+        List<Entry> entries = createQuery(entityManager, specification)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = entries.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? entries.subList(0, pageable.getPageSize()) : entries, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<Entry> streamAll(Specification<Entry> specification, int fetchSize) {
+        return createQuery(entityManager, specification)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    //  RETURNING makes it a query with result set, so it's read with getResultList(), not executeUpdate()
+    @Override
+    @Transactional
+    public Optional<Long> insertIfAbsent(Entry entry) {
+        List<?> ids = entityManager.createNativeQuery(INSERT_IF_ABSENT)
+                .setParameter(1, entry.getWord())
+                .setParameter(2, entry.getWordtype())
+                .setParameter(3, entry.getDefinition())
+                .getResultList();
+        return ids.stream().findFirst().map(id -> ((Number) id).longValue());
+    }
+
+    //  also used by EntryIndexVerifier, so it explains the same SQL as the repository runs
+    static TypedQuery<Entry> createQuery(EntityManager entityManager, Specification<Entry> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Entry> criteriaQuery = criteriaBuilder.createQuery(Entry.class);
+        Root<Entry> entryRoot = criteriaQuery.from(Entry.class);
+        Predicate predicate = specification == null ? null : specification.toPredicate(entryRoot, criteriaQuery, criteriaBuilder);
+        if (predicate != null) criteriaQuery.where(predicate);
+        criteriaQuery.select(entryRoot);
+        return entityManager.createQuery(criteriaQuery);
+    }
+}
@@ -0,0 +1,348 @@
+package com.polytech.dictionaryapi.service;
+
+import com.polytech.dictionaryapi.model.EntryChange;
+import com.polytech.dictionaryapi.repository.EntryChangeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ *  ChangeFeed streams entry_changes log to SSE subscribers of GET /entries/changes
+ *
+ *  single poller thread tails the log in version order (every 'dictionary.changes.poll-interval' ms and right after
+ *  every write of DictionaryService) and offers new changes to every subscriber. Versions are taken when a transaction
+ *  writes, not when it commits, so a missing version may still be in a running transaction. Every poll reads the last
+ *  taken version and then txids of transactions writing entry_changes: a transaction that took one of those versions
+ *  is either finished or among them, so once all of them finish the versions are published. Only transactions that
+ *  write entries are waited for, a late commit is published when it commits and a rolled back version is skipped as
+ *  soon as its transaction ends. 'dictionary.changes.lag' gauge is the age of the oldest versions still waited for,
+ *  a wait longer than LAG_WARNING_MILLIS is logged
+ *
+ *  every subscriber first replays the log from DB up to the version published when it subscribed, then sends changes
+ *  offered by poller from its own queue of 'dictionary.changes.queue-capacity' changes. Replays run on
+ *  'changeReplayExecutor', sends of queued changes on 'changeExecutor', so neither of them waits for the other.
+ *  Sending blocks on a slow client only one thread, while its queue fills up. When the queue overflows, subscriber
+ *  gets 'overflow' event with the last sent version and is closed, so it reconnects and replays from DB instead of
+ *  holding an unbounded backlog in memory. A subscriber whose send is blocked for more than
+ *  'dictionary.changes.send-timeout' ms is closed by poller, that fails the blocked write and frees its thread
+ *
+ *  changes older than 'dictionary.changes.retention-days' are pruned every PRUNE_INTERVAL_MINUTES, a subscriber whose
+ *  'since' is older than the first change left gets 'expired' event with the oldest 'since' that can still be replayed
+ *  and is closed, it has to reload the dictionary
+ */
+@Service
+public class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    static final int PAGE_SIZE = 1000;
+    private static final long PRUNE_INTERVAL_MINUTES = 60;
+    private static final long LAG_WARNING_MILLIS = 60_000;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "change-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //  written only by poller thread
+    private volatile long lastPublished;
+    //  versions of earlier polls waiting for their writers, oldest first
+    private final Deque<PendingVersions> pendingVersions = new ArrayDeque<>();
+    private volatile long waitingSince;
+    private volatile boolean started;
+
+    @Value("${dictionary.changes.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${dictionary.changes.poll-interval:1000}")
+    private long pollInterval;
+
+    @Value("${dictionary.changes.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${dictionary.changes.send-timeout:10000}")
+    private long sendTimeout;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @Autowired
+    @Qualifier("changeExecutor")
+    private Executor changeExecutor;
+
+    @Autowired
+    @Qualifier("changeReplayExecutor")
+    private Executor changeReplayExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /*
+     *  'dictionary.changes.subscribers' gauge, 'dictionary.changes.overflows' and 'dictionary.changes.timeouts' counters
+     *  of subscribers closed because of full queue and blocked send
+     */
+    @PostConstruct
+    private void registerMeters() {
+        Gauge.builder("dictionary.changes.subscribers", subscribers, Set::size).register(meterRegistry);
+        Gauge.builder("dictionary.changes.lag", this, feed -> feed.waitingSince == 0 ? 0 : System.currentTimeMillis() - feed.waitingSince)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lastPublished = entryChangeRepository.findLastVersion();
+        started = true;
+        poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::closeBlockedSubscribers, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::prune, PRUNE_INTERVAL_MINUTES, PRUNE_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    private void stop() {
+        poller.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    //  called by DictionaryService after its writes, so subscribers don't wait for the next scheduled poll
+    public void changed() {
+        if (started) poller.execute(this::poll);
+    }
+
+    /*
+     *  'since' is the last version client has seen, null streams only changes made after subscription
+     */
+    public void subscribe(SseEmitter emitter, Long since) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        //  registered before reading the published version, so every later change is either replayed or queued
+        subscribers.add(subscriber);
+        long upTo = lastPublished;
+        changeReplayExecutor.execute(() -> subscriber.replay(since == null ? upTo : since, upTo));
+    }
+
+    void poll() {
+        try {
+            long upTo = finishedVersion();
+            List<EntryChange> changes;
+            do {
+                changes = entryChangeRepository.findAfter(lastPublished, upTo, PAGE_SIZE);
+                for (EntryChange change : changes) {
+                    lastPublished = change.getVersion();
+                    subscribers.forEach(subscriber -> subscriber.offer(change));
+                }
+            } while (changes.size() == PAGE_SIZE);
+            //  versions left up to 'upTo' were rolled back
+            if (upTo > lastPublished) lastPublished = upTo;
+        } catch (RuntimeException ex) {
+            //  scheduled task is cancelled by an exception, next poll retries from the same version
+            logger.warn("Polling of change log failed: {}", ex.toString());
+        }
+    }
+
+    /*
+     *  returns the last version whose transaction and transactions of all versions before it have finished,
+     *  last taken version is read before writers, so a running transaction that took it is already among them
+     */
+    private long finishedVersion() {
+        long takenVersion = entryChangeRepository.findTakenVersion();
+        Set<Long> writers = new HashSet<>(entryChangeRepository.findWritingTransactions());
+        PendingVersions last = pendingVersions.peekLast();
+        //  the last pending versions are published no earlier than these ones, so they can wait together
+        if (last != null && last.writers.containsAll(writers)) {
+            last.version = takenVersion;
+        } else {
+            pendingVersions.addLast(new PendingVersions(takenVersion, writers, System.currentTimeMillis()));
+        }
+
+        Set<Long> waitedFor = new HashSet<>();
+        pendingVersions.forEach(pending -> waitedFor.addAll(pending.writers));
+        Set<Long> running = waitedFor.isEmpty() ? waitedFor : new HashSet<>(entryChangeRepository.findRunningTransactions(waitedFor));
+        long finished = lastPublished;
+        while (!pendingVersions.isEmpty() && pendingVersions.peekFirst().writers.stream().noneMatch(running::contains)) {
+            finished = pendingVersions.pollFirst().version;
+        }
+
+        PendingVersions oldest = pendingVersions.peekFirst();
+        waitingSince = oldest == null ? 0 : oldest.since;
+        if (oldest != null && !oldest.warned && System.currentTimeMillis() - oldest.since > LAG_WARNING_MILLIS) {
+            oldest.warned = true;
+            logger.warn("Changes after version {} wait for more than {} ms for transactions {}", finished, LAG_WARNING_MILLIS, oldest.writers);
+        }
+        return finished;
+    }
+
+    void closeBlockedSubscribers() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long sendStarted = subscriber.sendStarted;
+            if (sendStarted != 0 && now - sendStarted >= sendTimeout) {
+                meterRegistry.counter("dictionary.changes.timeouts").increment();
+                subscriber.close(new IOException("Change subscriber didn't accept an event for " + sendTimeout + " ms"));
+            }
+        }
+    }
+
+    //  only published changes are pruned, so poller never misses a change
+    void prune() {
+        try {
+            int pruned = entryChangeRepository.deleteExpired(lastPublished, retentionDays);
+            if (pruned > 0) logger.info("Pruned {} changes older than {} days", pruned, retentionDays);
+        } catch (RuntimeException ex) {
+            logger.warn("Pruning of change log failed: {}", ex.toString());
+        }
+    }
+
+    private static final class PendingVersions {
+
+        private long version;
+        private final Set<Long> writers;
+        private final long since;
+        private boolean warned;
+
+        PendingVersions(long version, Set<Long> writers, long since) {
+            this.version = version;
+            this.writers = writers;
+            this.since = since;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<EntryChange> queue = new ArrayBlockingQueue<>(queueCapacity);
+        //  true while replay or drain runs, so at most one thread sends to the emitter
+        private final AtomicBoolean sending = new AtomicBoolean(true);
+        private volatile boolean overflowed;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        //  start of the send in progress, 0 while nothing is being sent
+        private volatile long sendStarted;
+        //  handed over between sending threads by 'sending' flag
+        private long lastSent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(EntryChange change) {
+            if (!queue.offer(change)) {
+                overflowed = true;
+                queue.clear();
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (sending.compareAndSet(false, true)) changeExecutor.execute(this::drain);
+        }
+
+        void replay(long since, long upTo) {
+            lastSent = since;
+            try {
+                if (expired(since)) return;
+                List<EntryChange> changes;
+                do {
+                    changes = entryChangeRepository.findAfter(lastSent, upTo, PAGE_SIZE);
+                    for (EntryChange change : changes) send(change);
+                } while (changes.size() == PAGE_SIZE);
+                //  changes after 'since' may have been pruned while they were replayed
+                if (expired(since)) return;
+            } catch (IOException | RuntimeException ex) {
+                close(ex);
+                return;
+            }
+            drain();
+        }
+
+        private void drain() {
+            try {
+                EntryChange change;
+                while (!overflowed && (change = queue.poll()) != null) {
+                    //  replay may have sent changes published after subscription
+                    if (change.getVersion() > lastSent) send(change);
+                }
+                if (overflowed) {
+                    meterRegistry.counter("dictionary.changes.overflows").increment();
+                    emit(SseEmitter.event().name("overflow").data(lastSent));
+                    close(null);
+                    return;
+                }
+            } catch (IOException | RuntimeException ex) {
+                close(ex);
+                return;
+            }
+            sending.set(false);
+            //  poller may have offered a change after the queue was seen empty and before the flag was cleared
+            if (!queue.isEmpty() || overflowed) scheduleDrain();
+        }
+
+        //  closes the subscriber if changes right after 'since' are pruned
+        private boolean expired(long since) throws IOException {
+            long oldestSince = entryChangeRepository.findFirstVersion() - 1;
+            if (since >= oldestSince) return false;
+            emit(SseEmitter.event().name("expired").data(oldestSince));
+            close(null);
+            return true;
+        }
+
+        private void send(EntryChange change) throws IOException {
+            emit(SseEmitter.event()
+                    .id(Long.toString(change.getVersion()))
+                    .name("change")
+                    .data(change, MediaType.APPLICATION_JSON));
+            lastSent = change.getVersion();
+        }
+
+        private void emit(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStarted = System.currentTimeMillis();
+            try {
+                emitter.send(event);
+            } finally {
+                sendStarted = 0;
+            }
+        }
+
+        //  called by the sending thread or by poller for a blocked send, whichever comes first closes the emitter
+        private void close(Exception ex) {
+            if (!closed.compareAndSet(false, true)) return;
+            subscribers.remove(this);
+            queue.clear();
+            if (ex == null) {
+                emitter.complete();
+            } else {
+                //  usually a disconnected client
+                logger.debug("Change subscriber closed: {}", ex.toString());
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+}
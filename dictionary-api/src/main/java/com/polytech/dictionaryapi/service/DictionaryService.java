@@ -1,126 +1,671 @@
 package com.polytech.dictionaryapi.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.polytech.dictionaryapi.exception.BadResourceException;
 import com.polytech.dictionaryapi.exception.ResourceAlreadyExistsException;
 import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.exporter.ExportFormat;
+import com.polytech.dictionaryapi.importer.EntryReader;
+import com.polytech.dictionaryapi.importer.ImportFormat;
+import com.polytech.dictionaryapi.index.DictionarySnapshot;
+import com.polytech.dictionaryapi.index.WordCounts;
+import com.polytech.dictionaryapi.index.WordFrequencyIndex;
+import com.polytech.dictionaryapi.index.WordIndexFile;
+import com.polytech.dictionaryapi.model.BatchResult;
+import com.polytech.dictionaryapi.model.CursorPage;
 import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.EntryCursor;
+import com.polytech.dictionaryapi.model.EntryOperation;
 import com.polytech.dictionaryapi.model.Entry_;
+import com.polytech.dictionaryapi.model.ImportReport;
+import com.polytech.dictionaryapi.model.LookupResult;
+import com.polytech.dictionaryapi.model.WordLookup;
+import com.polytech.dictionaryapi.repository.EntryBatchRepository;
 import com.polytech.dictionaryapi.repository.EntryRepository;
 import com.polytech.dictionaryapi.specification.EntrySpecification;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import me.xdrop.fuzzywuzzy.FuzzySearch;
 import me.xdrop.fuzzywuzzy.model.ExtractedResult;
+import org.hibernate.jpa.QueryHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.util.Pair;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class DictionaryService {
+
+    private static final int FUZZY_SCORE_CUTOFF = 80;
+    private static final int FUZZY_RESULTS_LIMIT = 30;
+    private static final int ENTRY_CACHE_SIZE = 10_000;
+    private static final int FUZZY_CACHE_SIZE = 10_000;
+    private static final long FUZZY_CACHE_TTL_SECONDS = 2;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final int SNAPSHOT_LOAD_ATTEMPTS = 3;
+    private static final int MAX_LOOKUP_WORDS = 1000;
+    private static final int MAX_BATCH_OPERATIONS = 1000;
+    private static final int LOOKUP_SUGGESTIONS_LIMIT = 5;
+    private static final int RECONCILE_ATTEMPTS = 10;
+    private static final long RECONCILE_RETRY_DELAY = 100;
+    private static final long RECONCILE_MAX_RETRY_DELAY = 5000;
+    private static final String SERVICE_TIMER = "dictionary.service";
+
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryService.class);
+
     /*
      *  distinctWords is a collection of pairs {unique_word, amount_of_entries_in_database_with_this_word}
      *  it helps to avoid unnecessary DB queries in fuzzy search and live search implementations
      *  it's getting filled on 'ApplicationIsReady' event and every method that modifying DB also modifies it
      *  in this example with relatively small DB it collects all unique words, but with larger dictionaries
      *  it's recommended to keep only most relevant entries in it to avoid performance issues
-     *  P.S. It supposed to be implemented with Spring Caching, but never got time for it :(
+     *  it's shared by all request threads, so it's a concurrent index that also keeps live search prefix trie
+     *  and fuzzy search bigram index up to date
+     */
+    private WordFrequencyIndex distinctWords = new WordFrequencyIndex();
+    private final AtomicLong wordWritesStarted = new AtomicLong();
+    private final AtomicLong wordWritesFinished = new AtomicLong();
+    //  held shared by every word write, exclusively only by the last reconciliation attempt
+    private final ReadWriteLock wordWritesLock = new ReentrantReadWriteLock();
+
+    /*
+     *  wordsComplete is raised once distinctWords is loaded from DB or reconciled with it, from then on every word
+     *  in DB is in distinctWords, so a word its Bloom filter doesn't contain is answered without a query
+     *  a snapshot file restored on startup may miss words, it's trusted only after reconciliation
+     */
+    private volatile boolean wordsComplete;
+
+    @Value("${dictionary.words.snapshot-file:}")
+    private String wordIndexFile = "";
+
+    /*
+     *  pageTotals keeps {generation, total} of already counted filters like "letter:a" or "type:n."
+     */
+    private final ConcurrentHashMap<String, long[]> pageTotals = new ConcurrentHashMap<>();
+    private final AtomicLong totalsGeneration = new AtomicLong();
+
+    /*
+     *  entryCache is a read-through cache of single entries requested by id, it's bounded by size
+     *  with W-TinyLFU eviction, every method that modifies an entry invalidates its cached copy after DB write
+     */
+    private final Cache<Long, Entry> entryCache = Caffeine.newBuilder()
+            .maximumSize(ENTRY_CACHE_SIZE)
+            .recordStats()
+            .build();
+
+    /*
+     *  fuzzyCache keeps fuzzy search results by lowercased word for a couple of seconds: users typing into a search box
+     *  send the same mistyped words at about the same time, and fuzzy scoring of all candidates is the only expensive
+     *  part of it (suggestions are precomputed in the prefix trie), a word that is requested concurrently is scored
+     *  once, other requests wait for that result (Caffeine computes an absent value once per key)
+     *  an empty list means no similar words, every write clears the cache, TTL bounds memory taken by one-off typos
+     *  and staleness of a result that was being computed while a write cleared the cache
      */
-    private HashMap<String, Integer> distinctWords = null;
+    private final Cache<String, List<String>> fuzzyCache = Caffeine.newBuilder()
+            .maximumSize(FUZZY_CACHE_SIZE)
+            .expireAfterWrite(FUZZY_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+    /*
+     *  in memory-resident mode ('dictionary.memory-resident=true') snapshot serves all reads except full-text search
+     *  and export, it's null until the dictionary is loaded on 'ApplicationReadyEvent', reads go to DB meanwhile
+     *  writes go to DB first and then replace the snapshot with its modified copy under snapshotLock, a single entry
+     *  change only adds to the overlay of the copy, batches rebuild it, changed entries are read back from DB under
+     *  the lock, so concurrent writes of one entry leave the state committed last whatever order they get the lock in,
+     *  snapshotWrites lets the loader notice writes committed while it was reading the table
+     */
+    @Value("${dictionary.memory-resident:false}")
+    private boolean memoryResident;
+    private volatile DictionarySnapshot snapshot;
+    private final Object snapshotLock = new Object();
+    private final AtomicLong snapshotWrites = new AtomicLong();
+
+    /*
+     *  versions back HTTP validators: dictionaryVersion is bumped by every write, entryVersions keeps dictionaryVersion
+     *  of the last write of each entry modified since startup, other entries share importVersion of the last import,
+     *  because batch inserts don't return ids
+     *  versionEpoch is startup time, so versions of different application runs never produce equal tags
+     */
+    private final String versionEpoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong dictionaryVersion = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> entryVersions = new ConcurrentHashMap<>();
+    private volatile long importVersion;
+    private final AtomicLong lastModified = new AtomicLong(System.currentTimeMillis());
 
     @Autowired
     private EntryRepository entryRepository;
 
+    @Autowired
+    private EntryBatchRepository entryBatchRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("searchExecutor")
+    private Executor searchExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
+
     @PersistenceContext
     private EntityManager entityManager;
 
-    private boolean existsById(Long id) {
-        return entryRepository.existsById(id);
+    /*
+     *  besides timers of every public method service publishes 'dictionary.fuzzy.fallbacks' counter (its rate relative
+     *  to findByWord calls shows how often users mistype words), 'dictionary.words.filtered' counter of word lookups
+     *  answered by Bloom filter without DB, 'dictionary.suggestions.size' summary,
+     *  distinct words and memory-resident entries gauges, entry and fuzzy cache metrics
+     */
+    @PostConstruct
+    private void registerMeters() {
+        Gauge.builder("dictionary.words.distinct", this, service -> service.distinctWords.size())
+                .register(meterRegistry);
+        Gauge.builder("dictionary.snapshot.entries", this, service -> service.snapshot == null ? 0 : service.snapshot.size())
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, entryCache, "entries");
+        CaffeineCacheMetrics.monitor(meterRegistry, fuzzyCache, "fuzzy");
+    }
+
+    private Optional<Entry> findCachedById(Long id) {
+        if (id == null) return Optional.empty();
+        DictionarySnapshot memory = snapshot;
+        if (memory != null) return Optional.ofNullable(memory.findById(id));
+        return Optional.ofNullable(entryCache.get(id, key -> entryRepository.findById(key).orElse(null)));
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Entry findById(Long id) throws ResourceNotFoundException {
-        if (existsById(id)) {
-            return entryRepository.findById(id).get();
-        } else {
-            throw new ResourceNotFoundException("Entry not found with id \"" + id + "\"");
-        }
+        return findCachedById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Entry not found with id \"" + id + "\""));
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public void deleteById(Long id) throws ResourceNotFoundException {
-        if (existsById(id)) {
-            distinctWords.compute(findById(id).getWord(), (key, value) -> value == 1 ? null : --value);
+        Entry deletedEntry = findById(id);
+        startWordWrite();
+        try {
+            distinctWords.decrement(deletedEntry.getWord());
             entryRepository.deleteById(id);
-        } else {
-            throw new ResourceNotFoundException("Entry not found with id \"" + id + "\"");
+        } finally {
+            finishWordWrite();
         }
+        updateSnapshot(Collections.singleton(id));
+        entryCache.invalidate(id);
+        invalidatePageTotals();
+        bumpVersion(id);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Map<String, Number> getEntryCacheStats() {
+        CacheStats stats = entryCache.stats();
+        Map<String, Number> entryCacheStats = new LinkedHashMap<>();
+        entryCacheStats.put("size", entryCache.estimatedSize());
+        entryCacheStats.put("hitCount", stats.hitCount());
+        entryCacheStats.put("missCount", stats.missCount());
+        entryCacheStats.put("hitRate", stats.hitRate());
+        entryCacheStats.put("evictionCount", stats.evictionCount());
+        return entryCacheStats;
     }
 
+    /*
+     *  word index is restored from the snapshot file if there is one and reconciled with DB in the background,
+     *  so suggestions work right after startup, otherwise it's loaded from DB and the snapshot file is written
+     *  the listener has to be public: private listener is invoked on the bean itself, bypassing @Timed proxy
+     */
     @EventListener(ApplicationReadyEvent.class)
-    private void getDistinctWords() {
+    @Order(Ordered.HIGHEST_PRECEDENCE)  //  word index has to be filled before command line import starts
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public void getDistinctWords() {
         if (entityManager == null) return;  //  workaround to prevent NullPointerException when ApplicationReadyEvent
                                             //  is published during controller @WebMvcTest initialization
 
-        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Object[]> criteriaQuery = criteriaBuilder.createQuery(Object[].class);
-        Root<Entry> entryRoot = criteriaQuery.from(Entry.class);
-        criteriaQuery.groupBy(entryRoot.get(Entry_.word));
-        criteriaQuery.multiselect(entryRoot.get(Entry_.word), criteriaBuilder.count(entryRoot));
-        TypedQuery<Object[]> typedQuery = entityManager.createQuery(criteriaQuery);
+        Path snapshotFile = wordIndexFile.isEmpty() ? null : Paths.get(wordIndexFile);
+        if (snapshotFile != null && Files.isReadable(snapshotFile)) {
+            try {
+                this.distinctWords.load(WordIndexFile.read(snapshotFile));
+                taskExecutor.execute(() -> reconcileDistinctWords(true));
+                return;
+            } catch (IOException ex) {
+                logger.warn("Word index snapshot {} can't be read, loading words from database", snapshotFile, ex);
+            }
+        }
+        //  requests are served before the application is ready, so writes may run while words are read
+        reconcileDistinctWords(false);
+    }
+
+    /*
+     *  query results are streamed, a query created outside of transaction closes its EntityManager
+     *  as soon as getResultStream() returns, that's what used to close the ResultSet
+     */
+    private WordCounts readWordCounts() {
+        return readOnlyTransaction().execute(status -> {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Object[]> criteriaQuery = criteriaBuilder.createQuery(Object[].class);
+            Root<Entry> entryRoot = criteriaQuery.from(Entry.class);
+            criteriaQuery.groupBy(entryRoot.get(Entry_.word));
+            criteriaQuery.multiselect(entryRoot.get(Entry_.word), criteriaBuilder.count(entryRoot));
+            TypedQuery<Object[]> typedQuery = entityManager.createQuery(criteriaQuery)
+                    .setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+
+            WordCounts wordCounts = new WordCounts();
+            try (Stream<Object[]> rows = typedQuery.getResultStream()) {
+                rows.forEach(row -> wordCounts.add((String) row[0], Math.toIntExact((Long) row[1])));
+            }
+            return wordCounts;
+        });
+    }
+
+    /*
+     *  writes update distinctWords before their DB transaction commits, so counts read from DB can only be applied
+     *  if no write was in progress while they were read: wordWritesStarted is checked before reading and after
+     *  applying counts (like a seqlock), a write that started in between makes reconciliation run again
+     *  writes that start after counts are applied change reconciled counts as usual
+     *  a restored index is brought to DB counts word by word, an empty one is loaded at once, a load overwritten
+     *  by a concurrent write is simply loaded again, wordsComplete stays false until counts are applied unchanged
+     *  retries back off exponentially, if writes never pause for RECONCILE_ATTEMPTS attempts, the last attempt
+     *  blocks new writes and waits for running ones with wordWritesLock while it reads and applies counts
+     */
+    private void reconcileDistinctWords(boolean restored) {
+        try {
+            long delay = RECONCILE_RETRY_DELAY;
+            for (int attempt = 1; attempt < RECONCILE_ATTEMPTS; attempt++) {
+                long started = wordWritesStarted.get();
+                if (wordWritesFinished.get() == started) {
+                    int changed = applyWordCounts(restored);
+                    if (wordWritesStarted.get() == started) {
+                        completeDistinctWords(restored, changed);
+                        return;
+                    }
+                }
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, RECONCILE_MAX_RETRY_DELAY);
+            }
+            logger.info("Word writes didn't pause for {} attempts, blocking them to reconcile word index", RECONCILE_ATTEMPTS);
+            wordWritesLock.writeLock().lockInterruptibly();
+            try {
+                completeDistinctWords(restored, applyWordCounts(restored));
+            } finally {
+                wordWritesLock.writeLock().unlock();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            logger.warn("Word index reconciliation failed", ex);
+        }
+    }
+
+    private int applyWordCounts(boolean restored) {
+        if (restored) return distinctWords.reconcile(readWordCounts());
+        distinctWords.load(readWordCounts());
+        return 0;
+    }
+
+    private void completeDistinctWords(boolean restored, int changed) {
+        if (changed > 0) bumpVersion(Collections.<Long>emptyList());    //  suggestions may differ now
+        wordsComplete = true;
+        if (restored) {
+            logger.info("Word index reconciled with database, {} words changed", changed);
+        } else {
+            logger.info("Word index loaded from database, {} words", distinctWords.size());
+        }
+        saveWordIndex();
+    }
+
+    //  every write that changes distinctWords is wrapped into these two, see reconcileDistinctWords
+    private void startWordWrite() {
+        wordWritesLock.readLock().lock();
+        wordWritesStarted.incrementAndGet();
+    }
+
+    private void finishWordWrite() {
+        wordWritesFinished.incrementAndGet();
+        wordWritesLock.readLock().unlock();
+    }
+
+    @PreDestroy
+    public void saveWordIndex() {
+        if (wordIndexFile.isEmpty()) return;
+        try {
+            WordIndexFile.write(Paths.get(wordIndexFile), distinctWords.copyCounts());
+        } catch (IOException ex) {
+            logger.warn("Word index snapshot {} can't be written", wordIndexFile, ex);
+        }
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public void loadSnapshot() {
+        if (!memoryResident || entityManager == null) return;
+        reloadSnapshot();
+    }
+
+    /*
+     *  entries are streamed from a server-side cursor straight into snapshot builder, if any write was committed
+     *  after loading started the table is read again, a write made before it's counted is already seen by the query
+     *  under continuous writes the last attempt loads under snapshotLock, writers wait for it instead of failing it
+     */
+    private void reloadSnapshot() {
+        for (int attempt = 1; attempt < SNAPSHOT_LOAD_ATTEMPTS; attempt++) {
+            long writes = snapshotWrites.get();
+            DictionarySnapshot loaded = readSnapshot();
+            synchronized (snapshotLock) {
+                if (snapshotWrites.get() == writes) {
+                    snapshot = loaded;
+                    return;
+                }
+            }
+        }
+        logger.info("Dictionary changed during {} snapshot loads, loading it with writes of the snapshot paused", SNAPSHOT_LOAD_ATTEMPTS - 1);
+        synchronized (snapshotLock) {
+            snapshot = readSnapshot();
+        }
+    }
+
+    private DictionarySnapshot readSnapshot() {
+        return readOnlyTransaction().execute(status -> {
+            try (Stream<Entry> entries = entryRepository.streamAll(EntrySpecification.orderByWordAndId(), STREAM_FETCH_SIZE)) {
+                return DictionarySnapshot.of(entries::iterator);
+            }
+        });
+    }
+
+    //  called after the write is committed, ids missing in DB are removed from the snapshot
+    private void updateSnapshot(Collection<Long> ids) {
+        if (!memoryResident) return;
+        synchronized (snapshotLock) {
+            snapshotWrites.incrementAndGet();
+            if (snapshot == null) return;
+            List<Entry> entries = entryBatchRepository.findAllByIds(ids);
+            if (ids.size() == 1) {
+                snapshot = entries.isEmpty() ? snapshot.without(ids.iterator().next()) : snapshot.with(entries.get(0));
+            } else {
+                Set<Long> deletedIds = new HashSet<>(ids);
+                entries.forEach(entry -> deletedIds.remove(entry.getId()));
+                snapshot = snapshot.with(entries, deletedIds);
+            }
+        }
+    }
+
+    /*
+     *  writes all entries matching optional filters straight to output, entries are read from a server-side cursor
+     *  and detached one by one, so memory usage doesn't depend on dictionary size
+     *  it's called from StreamingResponseBody after controller method returns, transaction is opened here
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public void exportEntries(OutputStream output, ExportFormat format, Character letter, String type) throws IOException {
+        Specification<Entry> specification = Specification
+                .where(letter == null ? null : EntrySpecification.getEntriesByLetter(letter))
+                .and(type == null ? null : EntrySpecification.getEntriesByType(type))
+                .and(EntrySpecification.orderByWordAndId());
 
-        this.distinctWords = typedQuery.getResultList().stream()    //  using getResultsStream() here throwing PSQLException 'This ResultSet is closed'
-                                                                    //  adding @Transactional annotation to method signature workaround doesn't fix it,
-                                                                    //  apparently query connection is closed before .collect() initiates traversal
-                .map(item -> Pair.of(item[0].toString(), Integer.parseInt(item[1].toString())))
-                .collect(Collectors.toMap(Pair::getFirst, Pair::getSecond, Math::addExact, HashMap::new));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        format.writeHeader(writer);
+        try (Stream<Entry> entries = entryRepository.streamAll(specification, STREAM_FETCH_SIZE)) {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                format.write(iterator.next(), writer, objectMapper);
+            }
+        }
+        writer.flush();
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<String> getFuzzyEntries(String word) throws ResourceNotFoundException {
-        List<ExtractedResult> fuzzyWords = FuzzySearch.extractSorted(word, distinctWords.keySet(), 80);
-        List<String> fuzzyList = fuzzyWords.stream()
-                .map(ExtractedResult::getString)
-                .filter(item -> item.length() > word.length() || item.length() > 5)
-                .limit(30)
-                .collect(Collectors.toList());
+        meterRegistry.counter("dictionary.fuzzy.fallbacks").increment();
+        List<String> fuzzyList = fuzzyCache.get(word.toLowerCase(Locale.ROOT), key -> findFuzzyWords(word));
         if (fuzzyList.isEmpty()) throw new ResourceNotFoundException("No similar word found for request \"" + word + "\"");
 
         return new PageImpl<>(fuzzyList, PageRequest.of(0, fuzzyList.size()), fuzzyList.size());
     }
 
-    public List<String> getSuggestions(String input) {
-        return distinctWords.entrySet().stream()
-                .filter(item -> item.getKey().startsWith(input))
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(10)
-                .map(Map.Entry::getKey)
+    //  bigram index and FuzzySearch are case-insensitive, so the result of any case variant can be cached for all of them
+    private List<String> findFuzzyWords(String word) {
+        List<String> candidates = distinctWords.fuzzyCandidates(word).stream()  //  length filter doesn't depend on score,
+                .filter(item -> item.length() > word.length() || item.length() > 5)   //  so it's applied before scoring
                 .collect(Collectors.toList());
+        List<ExtractedResult> fuzzyWords = FuzzySearch.extractSorted(word, candidates, FUZZY_SCORE_CUTOFF);
+        return Collections.unmodifiableList(fuzzyWords.stream()
+                .map(ExtractedResult::getString)
+                .limit(FUZZY_RESULTS_LIMIT)
+                .collect(Collectors.toList()));
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public List<String> getSuggestions(String input) {
+        List<String> suggestions = distinctWords.suggest(input);
+        meterRegistry.summary("dictionary.suggestions.size").record(suggestions.size());
+        return suggestions;
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<Entry> findAll(int pageNumber, int perPage) {
-        return entryRepository.findAll(EntrySpecification.orderByWord(), PageRequest.of(pageNumber, perPage));
+        return findPage("all", EntrySpecification.orderByWord(), DictionarySnapshot::all, pageNumber, perPage);
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Slice<Entry> findAllSlice(int pageNumber, int perPage) {
+        return findSlice(EntrySpecification.orderByWord(), DictionarySnapshot::all, pageNumber, perPage);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<Entry> findByLetter(char letter, int pageNumber, int perPage) {
-        return entryRepository.findAll(Specification.where(EntrySpecification.getEntriesByLetter(letter)
-                .and(EntrySpecification.orderByWord())), PageRequest.of(pageNumber, perPage));
+        return findPage("letter:" + Character.toLowerCase(letter), Specification.where(EntrySpecification.getEntriesByLetter(letter)
+                .and(EntrySpecification.orderByWord())), memory -> memory.byLetter(letter), pageNumber, perPage);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Slice<Entry> findByLetterSlice(char letter, int pageNumber, int perPage) {
+        return findSlice(Specification.where(EntrySpecification.getEntriesByLetter(letter)
+                .and(EntrySpecification.orderByWord())), memory -> memory.byLetter(letter), pageNumber, perPage);
     }
 
+    /*
+     *  a page needs total amount of entries, totals are cached per filter and the count query runs only on cache miss,
+     *  any write makes all cached totals stale by moving totals generation forward, a total counted
+     *  while a write was in progress belongs to the old generation and is never used
+     */
+    private Page<Entry> findPage(String filter, Specification<Entry> specification,
+                                 Function<DictionarySnapshot, int[]> memoryPositions, int pageNumber, int perPage) {
+        PageRequest pageRequest = PageRequest.of(pageNumber, perPage);
+        DictionarySnapshot memory = snapshot;
+        if (memory != null) {
+            int[] positions = memoryPositions.apply(memory);
+            return new PageImpl<>(memory.entries(positions, pageStart(pageRequest), pageStart(pageRequest) + perPage),
+                    pageRequest, positions.length);
+        }
+        long generation = totalsGeneration.get();
+        long[] cachedTotal = pageTotals.get(filter);
+        if (cachedTotal != null && cachedTotal[0] == generation) {
+            Slice<Entry> entries = entryRepository.findSlice(specification, pageRequest);
+            return new PageImpl<>(entries.getContent(), pageRequest, cachedTotal[1]);
+        }
+
+        Page<Entry> entries = entryRepository.findAll(specification, pageRequest);
+        if (!entries.isEmpty()) pageTotals.put(filter, new long[] { generation, entries.getTotalElements() });
+        return entries;
+    }
+
+    private Slice<Entry> findSlice(Specification<Entry> specification, Function<DictionarySnapshot, int[]> memoryPositions,
+                                   int pageNumber, int perPage) {
+        PageRequest pageRequest = PageRequest.of(pageNumber, perPage);
+        DictionarySnapshot memory = snapshot;
+        if (memory == null) return entryRepository.findSlice(specification, pageRequest);
+
+        int[] positions = memoryPositions.apply(memory);
+        int start = pageStart(pageRequest);
+        return new SliceImpl<>(memory.entries(positions, start, start + perPage), pageRequest,
+                (long) start + perPage < positions.length);
+    }
+
+    private static int pageStart(PageRequest pageRequest) {
+        return (int) Math.min(pageRequest.getOffset(), Integer.MAX_VALUE - pageRequest.getPageSize());
+    }
+
+    private void invalidatePageTotals() {
+        totalsGeneration.incrementAndGet();
+        pageTotals.clear();
+    }
+
+    /*
+     *  called after DB write, so a tag read before the bump can only be stale for a response built before the write
+     */
+    private void bumpVersion(Long id) {
+        bumpVersion(Collections.singletonList(id));
+    }
+
+    private void bumpVersion(Collection<Long> ids) {
+        fuzzyCache.invalidateAll();
+        long version = dictionaryVersion.incrementAndGet();
+        ids.forEach(id -> entryVersions.put(id, version));
+        lastModified.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        changeFeed.changed();
+    }
+
+    private void bumpImportVersion() {
+        bumpVersion(Collections.<Long>emptyList());
+        importVersion = dictionaryVersion.get();
+    }
+
+    public String getVersionTag() {
+        return versionEpoch + "-" + dictionaryVersion.get();
+    }
+
+    public String getEntryVersionTag(Long id) {
+        return versionEpoch + "-" + id + "-" + entryVersions.getOrDefault(id, importVersion);
+    }
+
+    public long getLastModified() {
+        return lastModified.get();
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public CursorPage<Entry> findAll(String cursor, int perPage) throws BadResourceException {
+        return findAfterCursor(null, DictionarySnapshot::all, cursor, perPage);
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public CursorPage<Entry> findByLetter(char letter, String cursor, int perPage) throws BadResourceException {
+        return findAfterCursor(EntrySpecification.getEntriesByLetter(letter), memory -> memory.byLetter(letter), cursor, perPage);
+    }
+
+    /*
+     *  keyset pagination: seeks by (word, id) of the last returned entry instead of skipping rows with OFFSET,
+     *  one extra entry is fetched to know whether next page exists, so no count query is needed either
+     */
+    private CursorPage<Entry> findAfterCursor(Specification<Entry> specification, Function<DictionarySnapshot, int[]> memoryPositions,
+                                              String cursor, int perPage) throws BadResourceException {
+        EntryCursor after = cursor != null && !cursor.isEmpty() ? EntryCursor.decode(cursor) : null;
+        List<Entry> entries;
+        DictionarySnapshot memory = snapshot;
+        if (memory != null) {
+            int[] positions = memoryPositions.apply(memory);
+            int start = after == null ? 0 : memory.seek(positions, after.getWord(), after.getId());
+            entries = memory.entries(positions, start, start + perPage + 1);
+        } else {
+            Specification<Entry> seekSpecification = Specification.where(specification).and(EntrySpecification.orderByWordAndId());
+            if (after != null) {
+                seekSpecification = seekSpecification.and(EntrySpecification.getEntriesAfter(after.getWord(), after.getId()));
+            }
+            entries = entryRepository.findTop(seekSpecification, perPage + 1);
+        }
+        if (entries.size() <= perPage) {
+            return new CursorPage<>(entries, null);
+        }
+        List<Entry> content = entries.subList(0, perPage);
+        return new CursorPage<>(content, EntryCursor.of(content.get(perPage - 1)).encode());
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<Entry> findByWord(String word, int pageNumber, int perPage) throws ResourceNotFoundException {
-        Page<Entry> wordEntries = entryRepository.findAll(EntrySpecification.getEntriesByWord(word),
-                PageRequest.of(pageNumber, perPage));
+        Page<Entry> wordEntries = findByWordIfPresent(word, pageNumber, perPage);
         if (wordEntries.isEmpty()) {
             throw new ResourceNotFoundException("Entries not found with word \"" + word + "\"");
         } else {
@@ -128,13 +673,118 @@ public class DictionaryService {
         }
     }
 
-    private List<Entry> findAllByWord(String word) {
-        return entryRepository.findAll(EntrySpecification.getEntriesByWord(word));
+    /*
+     *  unlike findByWord it returns an empty page for a missing word, so the miss path of word search
+     *  doesn't throw, words known to be absent don't reach DB or memory-resident snapshot at all
+     */
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Page<Entry> findByWordIfPresent(String word, int pageNumber, int perPage) {
+        if (isKnownAbsent(word)) {
+            meterRegistry.counter("dictionary.words.filtered").increment();
+            return Page.empty(PageRequest.of(pageNumber, perPage));
+        }
+        return findPage("word:" + word.toLowerCase(), EntrySpecification.getEntriesByWord(word),
+                memory -> memory.byWord(word), pageNumber, perPage);
+    }
+
+    private boolean isKnownAbsent(String word) {
+        return wordsComplete && !distinctWords.mightContain(word);
+    }
+
+    /*
+     *  lookupWords resolves all requested words with a single 'lower(word) IN (...)' query instead of one query per word,
+     *  words known to be absent aren't queried at all,
+     *  entries are grouped by requested word (entries of the same word with different requested types are merged),
+     *  fuzzy suggestions of missed words are computed in parallel on search executor, if it's saturated they are computed
+     *  in the calling thread
+     */
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public LookupResult lookupWords(List<WordLookup> lookups) throws BadResourceException {
+        if (lookups == null || lookups.isEmpty()) {
+            throw new BadResourceException("Lookup words are empty");
+        }
+        if (lookups.size() > MAX_LOOKUP_WORDS) {
+            throw new BadResourceException("Too many lookup words, max is " + MAX_LOOKUP_WORDS);
+        }
+        Set<String> words = new HashSet<>();
+        for (WordLookup lookup : lookups) {
+            if (lookup == null || lookup.getWord() == null || lookup.getWord().trim().isEmpty()) {
+                throw new BadResourceException("Lookup word is empty");
+            }
+            words.add(lookup.getWord().toLowerCase());
+        }
+        words.removeIf(this::isKnownAbsent);
+
+        DictionarySnapshot memory = snapshot;
+        Stream<Entry> foundEntries;
+        if (words.isEmpty()) {
+            foundEntries = Stream.empty();
+        } else if (memory != null) {
+            foundEntries = words.stream().flatMap(word -> memory.entries(memory.byWord(word), 0, Integer.MAX_VALUE).stream());
+        } else {
+            foundEntries = entryRepository.findAll(EntrySpecification.getEntriesByWords(words)
+                    .and(EntrySpecification.orderByWordAndId())).stream();
+        }
+        Map<String, List<Entry>> wordEntries = foundEntries
+                .collect(Collectors.groupingBy(entry -> entry.getWord().toLowerCase()));
+
+        Map<String, List<Entry>> entries = new LinkedHashMap<>();
+        for (WordLookup lookup : lookups) {
+            List<Entry> merged = entries.computeIfAbsent(lookup.getWord(), key -> new ArrayList<>());
+            wordEntries.getOrDefault(lookup.getWord().toLowerCase(), Collections.emptyList()).stream()
+                    .filter(entry -> lookup.getType() == null || lookup.getType().equalsIgnoreCase(entry.getWordtype()))
+                    .filter(entry -> !merged.contains(entry))
+                    .forEach(merged::add);
+        }
+        List<String> misses = entries.entrySet().stream()
+                .filter(item -> item.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        misses.forEach(entries::remove);
+
+        Map<String, CompletableFuture<List<String>>> futures = new LinkedHashMap<>();
+        for (String word : misses) {
+            CompletableFuture<List<String>> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> getLookupSuggestions(word), searchExecutor);
+            } catch (RejectedExecutionException ex) {
+                future = CompletableFuture.completedFuture(getLookupSuggestions(word));
+            }
+            futures.put(word, future);
+        }
+        Map<String, List<String>> suggestions = new LinkedHashMap<>();
+        futures.forEach((word, future) -> suggestions.put(word, future.join()));
+
+        return new LookupResult(entries, suggestions);
+    }
+
+    private List<String> getLookupSuggestions(String word) {
+        try {
+            return getFuzzyEntries(word).getContent().stream()
+                    .limit(LOOKUP_SUGGESTIONS_LIMIT)
+                    .collect(Collectors.toList());
+        } catch (ResourceNotFoundException ex) {
+            return Collections.emptyList();
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Page<Entry> findByFullText(String query, int pageNumber, int perPage) throws BadResourceException, ResourceNotFoundException {
+        if (query == null || query.trim().isEmpty()) {
+            throw new BadResourceException("Full-text query is empty");
+        }
+        Page<Entry> foundEntries = entryRepository.findByFullText(query, PageRequest.of(pageNumber, perPage));
+        if (foundEntries.isEmpty()) {
+            throw new ResourceNotFoundException("Entries not found with text \"" + query + "\"");
+        } else {
+            return foundEntries;
+        }
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<Entry> findByType(String type, int pageNumber, int perPage) throws ResourceNotFoundException {
-        Page<Entry> typeEntries = entryRepository.findAll(Specification.where(EntrySpecification.getEntriesByType(type)
-                .and(EntrySpecification.orderByWord())), PageRequest.of(pageNumber, perPage));
+        Page<Entry> typeEntries = findPage("type:" + type.toLowerCase(), Specification.where(EntrySpecification.getEntriesByType(type)
+                .and(EntrySpecification.orderByWord())), memory -> memory.byType(type), pageNumber, perPage);
         if (typeEntries.isEmpty()) {
             throw new ResourceNotFoundException("Entries not found with type \"" + type +"\"");
         } else {
@@ -142,9 +792,22 @@ public class DictionaryService {
         }
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Slice<Entry> findByTypeSlice(String type, int pageNumber, int perPage) throws ResourceNotFoundException {
+        Slice<Entry> typeEntries = findSlice(Specification.where(EntrySpecification.getEntriesByType(type)
+                .and(EntrySpecification.orderByWord())), memory -> memory.byType(type), pageNumber, perPage);
+        if (typeEntries.isEmpty()) {
+            throw new ResourceNotFoundException("Entries not found with type \"" + type +"\"");
+        } else {
+            return typeEntries;
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Page<Entry> findByWordAndType(String word, String type, int pageNumber, int perPage) throws ResourceNotFoundException {
-        Page<Entry> wtEntries = entryRepository.findAll(Specification.where(EntrySpecification.getEntriesByWord(word)
-                .and(EntrySpecification.getEntriesByType(type)).and(EntrySpecification.orderByWord())), PageRequest.of(pageNumber, perPage));
+        Page<Entry> wtEntries = findPage("word+type:" + word.toLowerCase() + "|" + type.toLowerCase(), Specification.where(EntrySpecification.getEntriesByWord(word)
+                .and(EntrySpecification.getEntriesByType(type)).and(EntrySpecification.orderByWord())),
+                memory -> memory.byWordAndType(word, type), pageNumber, perPage);
         if (wtEntries.isEmpty()) {
             throw new ResourceNotFoundException("Entries not found with word \"" + word + "\" and type \"" + type +"\"");
         } else {
@@ -152,6 +815,41 @@ public class DictionaryService {
         }
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Slice<Entry> findByWordAndTypeSlice(String word, String type, int pageNumber, int perPage) throws ResourceNotFoundException {
+        Slice<Entry> wtEntries = findSlice(Specification.where(EntrySpecification.getEntriesByWord(word)
+                .and(EntrySpecification.getEntriesByType(type)).and(EntrySpecification.orderByWord())),
+                memory -> memory.byWordAndType(word, type), pageNumber, perPage);
+        if (wtEntries.isEmpty()) {
+            throw new ResourceNotFoundException("Entries not found with word \"" + word + "\" and type \"" + type +"\"");
+        } else {
+            return wtEntries;
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public CursorPage<Entry> findByType(String type, String cursor, int perPage) throws BadResourceException, ResourceNotFoundException {
+        CursorPage<Entry> typeEntries = findAfterCursor(EntrySpecification.getEntriesByType(type), memory -> memory.byType(type),
+                cursor, perPage);
+        if (typeEntries.getContent().isEmpty() && (cursor == null || cursor.isEmpty())) {
+            throw new ResourceNotFoundException("Entries not found with type \"" + type +"\"");
+        } else {
+            return typeEntries;
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public CursorPage<Entry> findByWordAndType(String word, String type, String cursor, int perPage) throws BadResourceException, ResourceNotFoundException {
+        CursorPage<Entry> wtEntries = findAfterCursor(EntrySpecification.getEntriesByWord(word)
+                .and(EntrySpecification.getEntriesByType(type)), memory -> memory.byWordAndType(word, type), cursor, perPage);
+        if (wtEntries.getContent().isEmpty() && (cursor == null || cursor.isEmpty())) {
+            throw new ResourceNotFoundException("Entries not found with word \"" + word + "\" and type \"" + type +"\"");
+        } else {
+            return wtEntries;
+        }
+    }
+
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public Entry addNewEntry(Entry newEntry) throws BadResourceException, ResourceAlreadyExistsException {
         if (newEntry == null) {
             throw new BadResourceException("Entry is NULL");
@@ -159,14 +857,30 @@ public class DictionaryService {
             throw new BadResourceException("Entry has NULL word, type or definition");
         } else if (newEntry.getWord().isEmpty() || newEntry.getWordtype().isEmpty() || newEntry.getDefinition().isEmpty()) {
             throw new BadResourceException("Entry has empty word, type or definition");
-        } else if (findAllByWord(newEntry.getWord()).contains(newEntry)) {
-            throw new ResourceAlreadyExistsException("Entry for word \"" + newEntry.getWord() + "\" with specified definition already exists");
+        } else if (newEntry.getWord().length() > 25 || newEntry.getWordtype().length() > 20) {
+            throw new BadResourceException("Entry has too long word or type");
         } else {
-            distinctWords.merge(newEntry.getWord(), 1, Integer::sum);
-            return entryRepository.save(newEntry);
+            //  duplicate check and insert are one statement, see EntryRepository.insertIfAbsent
+            Entry savedEntry;
+            startWordWrite();
+            try {
+                Long id = entryRepository.insertIfAbsent(newEntry)
+                        .orElseThrow(() -> new ResourceAlreadyExistsException("Entry for word \"" + newEntry.getWord() + "\" with specified definition already exists"));
+                newEntry.setId(id);
+                savedEntry = newEntry;
+                distinctWords.increment(savedEntry.getWord());
+            } finally {
+                finishWordWrite();
+            }
+            updateSnapshot(Collections.singleton(savedEntry.getId()));
+            entryCache.invalidate(savedEntry.getId());
+            invalidatePageTotals();
+            bumpVersion(savedEntry.getId());
+            return savedEntry;
         }
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public void updateEntry(Entry updatedEntry) throws BadResourceException, ResourceNotFoundException {
         if (updatedEntry == null) {
             throw new BadResourceException("Entry is NULL");
@@ -174,29 +888,282 @@ public class DictionaryService {
             throw new BadResourceException("Entry has NULL word, type or definition");
         } else if (updatedEntry.getWord().isEmpty() || updatedEntry.getWordtype().isEmpty() || updatedEntry.getDefinition().isEmpty()) {
             throw new BadResourceException("Entry has empty word, type or definition");
-        } else if (!existsById(updatedEntry.getId())) {
-            throw new ResourceNotFoundException("Entry not found with id \"" + updatedEntry.getId() + "\"");
         } else {
-            if (!updatedEntry.getWord().equals(findById(updatedEntry.getId()).getWord())) {
-                distinctWords.merge(updatedEntry.getWord(), 1, Integer::sum);
-                distinctWords.compute(findById(updatedEntry.getId()).getWord(), (key, value) -> value == 1 ? null : --value);
+            Entry currentEntry = findById(updatedEntry.getId());
+            startWordWrite();
+            try {
+                saveUnique(updatedEntry);
+                if (!updatedEntry.getWord().equals(currentEntry.getWord())) {
+                    distinctWords.increment(updatedEntry.getWord());
+                    distinctWords.decrement(currentEntry.getWord());
+                }
+            } finally {
+                finishWordWrite();
             }
-            entryRepository.save(updatedEntry);
+            updateSnapshot(Collections.singleton(updatedEntry.getId()));
+            entryCache.invalidate(updatedEntry.getId());
+            invalidatePageTotals();
+            bumpVersion(updatedEntry.getId());
         }
     }
 
+    @Timed(value = SERVICE_TIMER, histogram = true)
     public void updateDefinitionById(Long id, String newDefinition) throws BadResourceException, ResourceNotFoundException {
         if (newDefinition == null) {
             throw new BadResourceException("Definition is NULL");
         } else if (newDefinition.isEmpty()) {
             throw new BadResourceException("Definition is empty");
-        } else if (!existsById(id)) {
-            throw new ResourceNotFoundException("Entry not found with id \"" + id + "\"");
         } else {
-            Entry updatedEntry = entryRepository.findById(id).get();
+            //  cached entries are shared between requests, so the entry to modify is fetched from DB
+            Entry updatedEntry = entryRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Entry not found with id \"" + id + "\""));
             updatedEntry.setDefinition(newDefinition);
-            entryRepository.save(updatedEntry);
+            saveUnique(updatedEntry);
+            updateSnapshot(Collections.singleton(id));
+            entryCache.invalidate(id);
+            bumpVersion(id);
+        }
+    }
+
+    //  an updated entry may become equal to another one, unique index of content hash rejects it
+    private void saveUnique(Entry entry) throws ResourceAlreadyExistsException {
+        try {
+            entryRepository.save(entry);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResourceAlreadyExistsException("Entry for word \"" + entry.getWord() + "\" with specified definition already exists", ex);
+        }
+    }
+
+    /*
+     *  applyBatch validates all operations first and then applies them in one transaction with a few statements:
+     *  rows of updated, patched and deleted entries are locked and read (their old words are needed for word index),
+     *  deleted ones are deleted at once, then updated and patched entries are written with one JDBC batch update
+     *  in operation order and created entries with one JDBC batch insert taking ids from the sequence, a duplicate
+     *  is reported by its statement for its operation, so an entry may take contents of an entry deleted or changed
+     *  earlier in the same batch
+     *  if any operation fails the transaction is rolled back, after commit word index, snapshot, caches and versions
+     *  are updated once for the whole batch
+     */
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public BatchResult applyBatch(List<EntryOperation> operations) throws BadResourceException {
+        if (operations == null || operations.isEmpty()) {
+            throw new BadResourceException("Batch is empty");
+        } else if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new BadResourceException("Batch has more than " + MAX_BATCH_OPERATIONS + " operations");
+        }
+
+        BatchResult.Item[] failures = new BatchResult.Item[operations.size()];
+        Set<Long> changedIds = new HashSet<>();
+        int created = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            EntryOperation operation = operations.get(i);
+            String error = validate(operation);
+            if (error == null && operation.getOp() == EntryOperation.Type.CREATE) {
+                created++;
+            } else if (error == null && !changedIds.add(operation.getId())) {
+                error = "Entry with id \"" + operation.getId() + "\" is changed more than once";
+            }
+            if (error != null) failures[i] = new BatchResult.Item(HttpStatus.BAD_REQUEST.value(), operation == null ? null : operation.getId(), error);
+        }
+        if (Arrays.stream(failures).anyMatch(Objects::nonNull)) return rejectedBatch(operations, failures);
+
+        int newEntries = created;
+        Map<Long, Entry> currentEntries = new HashMap<>();
+        Entry[] writtenEntries = new Entry[operations.size()];
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        startWordWrite();
+        try {
+            boolean committed = Boolean.TRUE.equals(transaction.execute(status -> {
+                entryBatchRepository.findAllByIdsForUpdate(changedIds).forEach(entry -> currentEntries.put(entry.getId(), entry));
+                for (int i = 0; i < operations.size(); i++) {
+                    Long id = operations.get(i).getId();
+                    if (operations.get(i).getOp() != EntryOperation.Type.CREATE && !currentEntries.containsKey(id)) {
+                        failures[i] = new BatchResult.Item(HttpStatus.NOT_FOUND.value(), id, "Entry not found with id \"" + id + "\"");
+                    }
+                }
+                if (Arrays.stream(failures).anyMatch(Objects::nonNull)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+
+                entryBatchRepository.deleteAllByIds(operations.stream()
+                        .filter(operation -> operation.getOp() == EntryOperation.Type.DELETE)
+                        .map(EntryOperation::getId)
+                        .collect(Collectors.toSet()));
+                Iterator<Long> newIds = entryBatchRepository.nextIds(newEntries).iterator();
+                List<Entry> updatedEntries = new ArrayList<>();
+                List<Integer> updatedOperations = new ArrayList<>();
+                List<Entry> insertedEntries = new ArrayList<>();
+                List<Integer> insertedOperations = new ArrayList<>();
+                for (int i = 0; i < operations.size(); i++) {
+                    EntryOperation operation = operations.get(i);
+                    if (operation.getOp() == EntryOperation.Type.DELETE) continue;
+                    Entry entry = new Entry();
+                    if (operation.getOp() == EntryOperation.Type.PATCH) {
+                        Entry currentEntry = currentEntries.get(operation.getId());
+                        entry.setId(currentEntry.getId());
+                        entry.setWord(currentEntry.getWord());
+                        entry.setWordtype(currentEntry.getWordtype());
+                    } else {
+                        entry.setId(operation.getOp() == EntryOperation.Type.CREATE ? newIds.next() : operation.getId());
+                        entry.setWord(operation.getWord());
+                        entry.setWordtype(operation.getWordtype());
+                    }
+                    entry.setDefinition(operation.getDefinition());
+                    writtenEntries[i] = entry;
+                    if (operation.getOp() == EntryOperation.Type.CREATE) {
+                        insertedEntries.add(entry);
+                        insertedOperations.add(i);
+                    } else {
+                        updatedEntries.add(entry);
+                        updatedOperations.add(i);
+                    }
+                }
+
+                reportDuplicates(entryBatchRepository.updateAll(updatedEntries), updatedEntries, updatedOperations, operations, failures);
+                reportDuplicates(entryBatchRepository.insertAllWithIds(insertedEntries), insertedEntries, insertedOperations, operations, failures);
+                if (Arrays.stream(failures).anyMatch(Objects::nonNull)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            }));
+            if (!committed) return rejectedBatch(operations, failures);
+
+            for (int i = 0; i < operations.size(); i++) {
+                Entry currentEntry = operations.get(i).getOp() == EntryOperation.Type.CREATE ? null : currentEntries.get(operations.get(i).getId());
+                Entry writtenEntry = writtenEntries[i];
+                if (currentEntry != null && (writtenEntry == null || !writtenEntry.getWord().equals(currentEntry.getWord()))) {
+                    distinctWords.decrement(currentEntry.getWord());
+                }
+                if (writtenEntry != null && (currentEntry == null || !writtenEntry.getWord().equals(currentEntry.getWord()))) {
+                    distinctWords.increment(writtenEntry.getWord());
+                }
+            }
+        } finally {
+            finishWordWrite();
+        }
+
+        List<Entry> upsertedEntries = Arrays.stream(writtenEntries).filter(Objects::nonNull).collect(Collectors.toList());
+        Set<Long> writtenIds = new HashSet<>(changedIds);
+        upsertedEntries.forEach(entry -> writtenIds.add(entry.getId()));
+        updateSnapshot(writtenIds);
+        entryCache.invalidateAll(changedIds);
+        invalidatePageTotals();
+        bumpVersion(writtenIds);
+
+        List<BatchResult.Item> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            boolean isCreated = operations.get(i).getOp() == EntryOperation.Type.CREATE;
+            results.add(new BatchResult.Item(isCreated ? HttpStatus.CREATED.value() : HttpStatus.OK.value(),
+                    isCreated ? writtenEntries[i].getId() : operations.get(i).getId(), null));
+        }
+        return new BatchResult(true, results);
+    }
+
+    private static void reportDuplicates(boolean[] written, List<Entry> entries, List<Integer> entryOperations,
+                                         List<EntryOperation> operations, BatchResult.Item[] failures) {
+        for (int j = 0; j < written.length; j++) {
+            int i = entryOperations.get(j);
+            if (!written[j]) {
+                failures[i] = new BatchResult.Item(HttpStatus.CONFLICT.value(), operations.get(i).getOp() == EntryOperation.Type.CREATE ? null : entries.get(j).getId(),
+                        "Entry for word \"" + entries.get(j).getWord() + "\" with specified definition already exists");
+            }
+        }
+    }
+
+    //  returns error message of an invalid operation or null, messages are the same as of single entry methods
+    private static String validate(EntryOperation operation) {
+        if (operation == null || operation.getOp() == null) {
+            return "Operation is NULL";
+        } else if (operation.getOp() != EntryOperation.Type.CREATE && operation.getId() == null) {
+            return "Entry id is NULL";
+        }
+        switch (operation.getOp()) {
+            case CREATE:
+            case UPDATE:
+                if (operation.getWord() == null || operation.getWordtype() == null || operation.getDefinition() == null) {
+                    return "Entry has NULL word, type or definition";
+                } else if (operation.getWord().isEmpty() || operation.getWordtype().isEmpty() || operation.getDefinition().isEmpty()) {
+                    return "Entry has empty word, type or definition";
+                } else if (operation.getWord().length() > 25 || operation.getWordtype().length() > 20) {
+                    return "Entry has too long word or type";
+                }
+                return null;
+            case PATCH:
+                if (operation.getDefinition() == null) {
+                    return "Definition is NULL";
+                } else if (operation.getDefinition().isEmpty()) {
+                    return "Definition is empty";
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    //  failed operations keep their results, the others weren't applied because of them
+    private static BatchResult rejectedBatch(List<EntryOperation> operations, BatchResult.Item[] failures) {
+        List<BatchResult.Item> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            results.add(failures[i] != null ? failures[i] : new BatchResult.Item(HttpStatus.FAILED_DEPENDENCY.value(), operations.get(i).getId(), null));
+        }
+        return new BatchResult(false, results);
+    }
+
+    /*
+     *  imports entries in batches, every batch is written with one JDBC batch insert, duplicates of entries in DB
+     *  and inside the input are skipped by the insert itself (ON CONFLICT of content hash), so nothing is looked up
+     */
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public ImportReport importEntries(InputStream input, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        long read = 0, inserted = 0, rejected = 0;
+        try (EntryReader reader = format.newReader(new InputStreamReader(input, StandardCharsets.UTF_8), objectMapper)) {
+            List<Entry> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            for (Entry entry = reader.read(); entry != null; entry = reader.read()) {
+                read++;
+                if (!isImportable(entry)) {
+                    rejected++;
+                } else {
+                    batch.add(entry);
+                    if (batch.size() == IMPORT_BATCH_SIZE) {
+                        inserted += importBatch(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            inserted += importBatch(batch);
+        }
+        if (memoryResident && inserted > 0) {   //  batch inserts don't return ids, so imported entries are read back from DB
+            snapshotWrites.incrementAndGet();
+            reloadSnapshot();
+        }
+        return new ImportReport(read, inserted, read - inserted - rejected, rejected, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    //  unlike addNewEntry it accepts empty word types, OPTED dictionary has some of them
+    private static boolean isImportable(Entry entry) {
+        return entry.getWord() != null && !entry.getWord().isEmpty() && entry.getWord().length() <= 25
+                && entry.getWordtype() != null && entry.getWordtype().length() <= 20
+                && entry.getDefinition() != null && !entry.getDefinition().isEmpty();
+    }
+
+    private int importBatch(List<Entry> batch) {
+        int inserted;
+        startWordWrite();
+        try {
+            List<Entry> newEntries = entryBatchRepository.insertAll(batch);
+            newEntries.forEach(entry -> distinctWords.increment(entry.getWord()));
+            inserted = newEntries.size();
+        } finally {
+            finishWordWrite();
+        }
+        if (inserted > 0) {
+            invalidatePageTotals();
+            bumpImportVersion();
         }
+        return inserted;
     }
 
 }
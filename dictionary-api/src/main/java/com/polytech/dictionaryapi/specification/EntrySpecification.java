@@ -4,12 +4,21 @@ import com.polytech.dictionaryapi.model.Entry;
 import com.polytech.dictionaryapi.model.Entry_;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+import java.util.stream.Collectors;
+
 public class EntrySpecification {
 
     public static Specification<Entry> getEntriesByWord(String word) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(criteriaBuilder.lower(root.get(Entry_.word)), word.toLowerCase());
     }
 
+    public static Specification<Entry> getEntriesByWords(Collection<String> words) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.lower(root.get(Entry_.word)).in(words.stream()
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet()));
+    }
+
     public static Specification<Entry> getEntriesByType(String type) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(criteriaBuilder.lower(root.get(Entry_.wordtype)), type.toLowerCase());
     }
@@ -25,4 +34,22 @@ public class EntrySpecification {
         };
     }
 
+    public static Specification<Entry> orderByWordAndId() {
+        return (root, query, criteriaBuilder) -> {
+            query.orderBy(criteriaBuilder.asc(root.get(Entry_.word)), criteriaBuilder.asc(root.get(Entry_.id)));
+            return null;
+        };
+    }
+
+    /*
+     *  keyset condition (word, id) > (lastWord, lastId), redundant 'word >= lastWord' lets index scan start right at the cursor
+     */
+    public static Specification<Entry> getEntriesAfter(String word, Long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(root.get(Entry_.word), word),
+                criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(root.get(Entry_.word), word),
+                        criteriaBuilder.greaterThan(root.get(Entry_.id), id)));
+    }
+
 }
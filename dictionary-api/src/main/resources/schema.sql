@@ -0,0 +1,109 @@
+-- words are sorted by bytes like "C" collation, so pages and cursors of DB queries are the same as of memory-resident
+-- snapshot, character classes are taken from the database, so lower(word) still lowercases non-ASCII letters
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_collation WHERE collname = ''entries_word'') THEN
+        EXECUTE format(''CREATE COLLATION entries_word (lc_collate = ''''C'''', lc_ctype = %L)'',
+            (SELECT datctype FROM pg_database WHERE datname = current_database()));
+    END IF;
+END';
+
+CREATE TABLE IF NOT EXISTS entries (
+    id bigserial PRIMARY KEY,
+    word varchar(25) COLLATE entries_word NOT NULL,
+    wordtype varchar(20) NOT NULL,
+    definition text NOT NULL
+);
+
+-- EntrySpecification.getEntriesByWord compares lower(word), getEntriesByLetter uses lower(word) LIKE 'x%'
+-- text_pattern_ops index serves both equality and prefix LIKE regardless of database collation
+CREATE INDEX IF NOT EXISTS entries_lower_word_idx ON entries (lower(word) text_pattern_ops);
+
+-- EntrySpecification.getEntriesByType compares lower(wordtype), keyset pages of a type are read in (word, id) order
+DROP INDEX IF EXISTS entries_lower_wordtype_idx;
+CREATE INDEX IF NOT EXISTS entries_lower_wordtype_word_id_idx ON entries (lower(wordtype), word, id);
+
+-- EntrySpecification.orderByWord, keyset pagination by (word, id) and distinct words grouping
+DROP INDEX IF EXISTS entries_word_idx;
+CREATE INDEX IF NOT EXISTS entries_word_id_idx ON entries (word, id);
+
+-- word of a table created by an earlier version is sorted by database collation, columns generated from it have to be
+-- dropped to change it, they are added again below, indexes of word are rebuilt
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = ''entries'' AND column_name = ''word''
+            AND collation_name IS DISTINCT FROM ''entries_word'') THEN
+        ALTER TABLE entries DROP COLUMN IF EXISTS search_vector, DROP COLUMN IF EXISTS content_hash;
+        ALTER TABLE entries ALTER COLUMN word TYPE varchar(25) COLLATE entries_word;
+    END IF;
+END';
+
+-- full-text search over words and definitions, word matches rank higher than definition matches
+-- generated column is kept up to date by PostgreSQL itself (requires PostgreSQL 12+)
+ALTER TABLE entries ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', word), 'A') || setweight(to_tsvector('english', definition), 'B')
+) STORED;
+CREATE INDEX IF NOT EXISTS entries_search_vector_idx ON entries USING gin (search_vector);
+
+-- duplicate entries (same word, type and definition, compared like Entry.equals) are rejected by unique index of their
+-- content hash, so EntryRepository.insertIfAbsent and batch inserts detect them with ON CONFLICT in the same round trip
+-- hash of lowercased word left by an earlier version is dropped together with its index and computed again
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name = ''entries'' AND column_name = ''content_hash''
+            AND generation_expression LIKE ''%lower(%'') THEN
+        ALTER TABLE entries DROP COLUMN content_hash;
+    END IF;
+END';
+ALTER TABLE entries ADD COLUMN IF NOT EXISTS content_hash uuid GENERATED ALWAYS AS (
+    md5(word || E'\x1f' || wordtype || E'\x1f' || definition)::uuid
+) STORED;
+-- duplicates of an existing database or of OPTED.sql would make the index fail, so they are deleted right before
+-- it's created, the oldest entry of every group is kept
+DO '
+DECLARE
+    deleted integer;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes WHERE tablename = ''entries'' AND indexname = ''entries_content_hash_idx'') THEN
+        DELETE FROM entries duplicate USING entries original
+            WHERE original.content_hash = duplicate.content_hash AND original.id < duplicate.id
+                AND original.word = duplicate.word AND original.wordtype = duplicate.wordtype
+                AND original.definition = duplicate.definition;
+        GET DIAGNOSTICS deleted = ROW_COUNT;
+        IF deleted > 0 THEN
+            RAISE WARNING ''Deleted % duplicate entries before creating unique index of content hash'', deleted;
+        END IF;
+    END IF;
+END';
+CREATE UNIQUE INDEX IF NOT EXISTS entries_content_hash_idx ON entries (content_hash);
+
+-- change log of entries for GET /entries/changes, it's written by a trigger, so every write (including JDBC batch
+-- inserts of batch endpoint) is logged in its own transaction, versions grow with every change
+-- bulk import sets 'dictionary.bulk_import' for its transaction, its rows aren't logged and EntryBatchRepository
+-- logs one 'reload' change (entry_id 0) per batch instead, so import doesn't write every entry twice
+-- ChangeFeed deletes changes older than 'dictionary.changes.retention-days'
+-- function body is quoted with '' instead of $$, because Spring splits this script by semicolons outside of quotes
+CREATE TABLE IF NOT EXISTS entry_changes (
+    version bigserial PRIMARY KEY,
+    operation varchar(6) NOT NULL,
+    entry_id bigint NOT NULL,
+    word varchar(25),
+    wordtype varchar(20),
+    definition text,
+    changed_at timestamptz NOT NULL DEFAULT now()
+);
+CREATE OR REPLACE FUNCTION log_entry_change() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    IF current_setting(''dictionary.bulk_import'', true) = ''on'' THEN
+        RETURN NULL;
+    ELSIF TG_OP = ''DELETE'' THEN
+        INSERT INTO entry_changes (operation, entry_id) VALUES (''delete'', OLD.id);
+    ELSE
+        INSERT INTO entry_changes (operation, entry_id, word, wordtype, definition)
+            VALUES (CASE TG_OP WHEN ''INSERT'' THEN ''create'' ELSE ''update'' END, NEW.id, NEW.word, NEW.wordtype, NEW.definition);
+    END IF;
+    RETURN NULL;
+END';
+DROP TRIGGER IF EXISTS entries_change_log ON entries;
+CREATE TRIGGER entries_change_log AFTER INSERT OR UPDATE OR DELETE ON entries
+    FOR EACH ROW EXECUTE FUNCTION log_entry_change();
@@ -0,0 +1,137 @@
+package com.polytech.dictionaryapi;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/*
+ *  Load test of dictionary-api image with a fixed amount of Tomcat workers and search threads:
+ *  clients keep sending slow fuzzy lookups of mistyped words and, at the same time, suggestions and single entry requests,
+ *  throughput of every kind of request is printed, run with 'gradlew benchmark'
+ *  with synchronous search endpoints fuzzy lookups held every Tomcat worker and starved the other requests
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+public class SearchLoadBenchmark {
+
+    private static final String DICTIONARY_DB_HOSTNAME = "dictionary_db";
+    private static final Network NETWORK = Network.newNetwork();
+    private static final int TOMCAT_THREADS = 8;
+    private static final int DURATION_SECONDS = 20;
+
+    @Container
+    public static PostgreSQLContainer<?> dictionaryDBContainer = new PostgreSQLContainer<>("dictionary-postgres")
+            .withNetwork(NETWORK)
+            .withNetworkAliases(DICTIONARY_DB_HOSTNAME);
+
+    @Container
+    public static GenericContainer<?> dictionaryApiContainer = new GenericContainer<>("dictionary-api")
+            .withNetwork(NETWORK)
+            .withExposedPorts(8080)
+            .withEnv("spring_datasource_url", "jdbc:postgresql://" + DICTIONARY_DB_HOSTNAME + ":5432/dictionary_db?loggerLevel=OFF")
+            .withEnv("spring_datasource_username", dictionaryDBContainer.getUsername())
+            .withEnv("spring_datasource_password", dictionaryDBContainer.getPassword())
+            .withEnv("server_tomcat_max_threads", String.valueOf(TOMCAT_THREADS))
+            .withEnv("dictionary_search_pool_size", String.valueOf(TOMCAT_THREADS))
+            .waitingFor(Wait.forHttp("/entries/search/a"));
+
+    @BeforeAll
+    static void init() {
+        dictionaryDBContainer.start();
+        dictionaryApiContainer.start();
+    }
+
+    @AfterAll
+    static void shutDown() {
+        dictionaryApiContainer.stop();
+        dictionaryDBContainer.stop();
+    }
+
+    @Test
+    public void benchmarkSearchUnderFuzzyLoad() throws InterruptedException {
+        String baseUrl = "http://localhost:" + dictionaryApiContainer.getMappedPort(8080);
+        List<Load> loads = new ArrayList<>();
+        loads.add(new Load("fuzzy lookup", 4 * TOMCAT_THREADS, () -> baseUrl + "/entries/word?word=Abandn" + randomLetters()));
+        loads.add(new Load("suggestions", TOMCAT_THREADS, () -> baseUrl + "/entries/search/Ab" + randomLetters().substring(0, 1)));
+        loads.add(new Load("entry by id", TOMCAT_THREADS, () -> baseUrl + "/entries/" + ThreadLocalRandom.current().nextInt(1, 1000)));
+
+        int clients = loads.stream().mapToInt(load -> load.clients).sum();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        for (Load load : loads) {
+            for (int i = 0; i < load.clients; i++) {
+                executor.execute(() -> load.run(deadline));
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(DURATION_SECONDS + 60, TimeUnit.SECONDS);
+
+        System.out.println(format("%-14s %8s %10s %10s %12s", "request", "clients", "completed", "req/s", "avg, ms"));
+        for (Load load : loads) {
+            System.out.println(format("%-14s %8d %10d %10.1f %12.2f", load.name, load.clients, load.completed.get(),
+                    load.completed.get() / (double) DURATION_SECONDS, load.nanos.get() / 1e6 / Math.max(load.completed.get(), 1)));
+        }
+    }
+
+    private static String randomLetters() {
+        char[] letters = new char[3];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + ThreadLocalRandom.current().nextInt(26));
+        }
+        return new String(letters);
+    }
+
+    private static class Load {
+
+        private final String name;
+        private final int clients;
+        private final Supplier<String> urls;
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        Load(String name, int clients, Supplier<String> urls) {
+            this.name = name;
+            this.clients = clients;
+            this.urls = urls;
+        }
+
+        void run(long deadline) {
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                try {
+                    HttpURLConnection connection = (HttpURLConnection) new URL(urls.get()).openConnection();
+                    connection.getResponseCode();
+                    InputStream body = connection.getErrorStream() != null ? connection.getErrorStream() : connection.getInputStream();
+                    if (body != null) body.close();
+                } catch (IOException ex) {
+                    continue;
+                }
+                nanos.addAndGet(System.nanoTime() - start);
+                completed.incrementAndGet();
+            }
+        }
+    }
+}
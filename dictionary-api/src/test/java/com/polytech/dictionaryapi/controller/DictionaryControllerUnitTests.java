@@ -1,24 +1,36 @@
 package com.polytech.dictionaryapi.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.model.BatchResult;
 import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.EntryOperation;
+import com.polytech.dictionaryapi.model.LookupResult;
+import com.polytech.dictionaryapi.model.WordLookup;
+import com.polytech.dictionaryapi.service.ChangeFeed;
 import com.polytech.dictionaryapi.service.DictionaryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,11 +38,18 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doReturn;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -45,6 +64,9 @@ public class DictionaryControllerUnitTests {
     @MockBean
     private DictionaryService dictionaryService;
 
+    @MockBean
+    private ChangeFeed changeFeed;
+
     public static String asJsonString(final Object obj) throws JsonProcessingException {
         final ObjectMapper mapper = new ObjectMapper();
         return mapper.writeValueAsString(obj);
@@ -72,15 +94,41 @@ public class DictionaryControllerUnitTests {
                 .andExpect(jsonPath("$.content[1].word", is("TestEntry")));
     }
 
+    @Test
+    public void givenEntries_whenRequestedSmile_returnCompactPage() throws Exception {
+        List<Entry> testEntryList = Arrays.asList(new Entry(), TEST_ENTRY, new Entry());
+
+        when(dictionaryService.findAll(0, 10))
+                .thenReturn(new PageImpl<>(testEntryList, PageRequest.of(0, 3), 3));
+
+        mvc.perform(get("/entries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements", is(3)))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.sort").doesNotExist());
+
+        MvcResult result = mvc.perform(get("/entries")
+                .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals("application/x-jackson-smile", result.getResponse().getContentType());
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("TestEntry", page.get("content").get(1).get("word").asText());
+        assertEquals(3, page.get("totalElements").asInt());
+    }
+
     @Test
     public void givenEntries_whenRequestedExistentWord_returnJsonArray() throws Exception {
         List<Entry> testEntryList = Collections.singletonList(TEST_ENTRY);
 
-        when(dictionaryService.findByWord("TestEntry", 0, 10))
+        when(dictionaryService.findByWordIfPresent("TestEntry", 0, 10))
                 .thenReturn(new PageImpl<>(testEntryList, PageRequest.of(0, 1), 1));
 
-        mvc.perform(get("/entries/word?word=TestEntry")
+        MvcResult asyncResult = mvc.perform(get("/entries/word?word=TestEntry")
                 .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].word", is("TestEntry")));
@@ -90,22 +138,43 @@ public class DictionaryControllerUnitTests {
     public void givenEntries_whenRequestedNonexistentWord_returnNotFoundAndJsonArray() throws Exception {
         List<Entry> testEntryList = Collections.singletonList(TEST_ENTRY);
 
-        when(dictionaryService.findByWord("NonexistentTestEntry", 0, 10))
-                .thenThrow(new ResourceNotFoundException("Entry not found with word \"NonexistentTestEntry\""))
+        when(dictionaryService.findByWordIfPresent("NonexistentTestEntry", 0, 10))
+                .thenReturn(Page.empty(PageRequest.of(0, 10)))
                 .thenReturn(new PageImpl<>(testEntryList, PageRequest.of(0, 1), 1));
 
-        mvc.perform(get("/entries/word?word=NonexistentTestEntry")
+        MvcResult asyncResult = mvc.perform(get("/entries/word?word=NonexistentTestEntry")
                 .contentType(MediaType.APPLICATION_JSON_VALUE))
-                .andExpect(status().isNotFound());
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("Message", "Entries not found with word \"NonexistentTestEntry\""));
 //                .andExpect(jsonPath("$.content", hasSize(1)))
 //                .andExpect(jsonPath("$.content[0].word", is("TestEntry")));
 
-        mvc.perform(get("/entries/word?word=NonexistentTestEntry")
+        asyncResult = mvc.perform(get("/entries/word?word=NonexistentTestEntry")
                 .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].word", is("TestEntry")));
     }
 
+    @Test
+    public void givenWords_whenRequestedSuggestions_returnJsonArrayAsync() throws Exception {
+        when(dictionaryService.getSuggestions("Test"))
+                .thenReturn(Arrays.asList("TestEntry", "Testament"));
+
+        MvcResult asyncResult = mvc.perform(get("/entries/search/Test"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1]", is("Testament")));
+    }
+
     @Test
     public void givenEntries_whenRequestedType_returnJsonArray() throws Exception {
         List<Entry> testEntriesList = Arrays.asList(new Entry(), TEST_ENTRY, new Entry());
@@ -140,6 +209,82 @@ public class DictionaryControllerUnitTests {
                 .andExpect(jsonPath("$.content[1].definition", is("Another test definition")));
     }
 
+    @Test
+    public void givenETag_whenRequestedUnchangedEntry_returnNotModifiedWithoutLookup() throws Exception {
+        when(dictionaryService.getEntryVersionTag(1234567L)).thenReturn("k7a1b2-1234567-0");
+        when(dictionaryService.findById(1234567L)).thenReturn(TEST_ENTRY);
+
+        mvc.perform(get("/entries/1234567"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"k7a1b2-1234567-0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, must-revalidate, public"))
+                .andExpect(jsonPath("$.word", is("TestEntry")));
+
+        mvc.perform(get("/entries/1234567")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"k7a1b2-1234567-0\""))
+                .andExpect(status().isNotModified());
+        verify(dictionaryService, times(1)).findById(anyLong());
+
+        when(dictionaryService.getVersionTag()).thenReturn("k7a1b2-5");
+        mvc.perform(get("/entries?cursor=")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"k7a1b2-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"k7a1b2-5\""));
+        verify(dictionaryService, never()).findAll(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    public void givenLastModified_whenRequestedConditionally_returnValidatorsOnlyWithEntries() throws Exception {
+        when(dictionaryService.getEntryVersionTag(42L)).thenReturn("k7a1b2-42-0");
+        when(dictionaryService.findById(42L)).thenThrow(new ResourceNotFoundException("Entry not found with id \"42\""));
+        mvc.perform(get("/entries/42"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+
+        HttpHeaders conditions = new HttpHeaders();
+        conditions.setIfModifiedSince(1_600_000_000_000L);
+        when(dictionaryService.getLastModified()).thenReturn(1_600_000_000_500L);
+        when(dictionaryService.getEntryVersionTag(1234567L)).thenReturn("k7a1b2-1234567-1");
+        when(dictionaryService.findById(1234567L)).thenReturn(TEST_ENTRY);
+        mvc.perform(get("/entries/1234567"))
+                .andExpect(status().isOk())
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, 1_600_000_000_000L));
+        mvc.perform(get("/entries/1234567")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, conditions.getFirst(HttpHeaders.IF_MODIFIED_SINCE)))
+                .andExpect(status().isNotModified());
+        //  ETag of an older version decides, even though Last-Modified is the same second
+        mvc.perform(get("/entries/1234567")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"k7a1b2-1234567-0\"")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, conditions.getFirst(HttpHeaders.IF_MODIFIED_SINCE)))
+                .andExpect(status().isOk());
+
+        //  a write of the current second may be followed by another one in the same second, Last-Modified waits for it
+        when(dictionaryService.getLastModified()).thenReturn(System.currentTimeMillis() + 1000);
+        mvc.perform(get("/entries/1234567"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"k7a1b2-1234567-1\""))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    public void givenWords_whenRequestedLookup_returnEntriesAndSuggestions() throws Exception {
+        when(dictionaryService.lookupWords(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<WordLookup> lookups = invocation.getArgument(0);
+            assertEquals("test.", lookups.get(0).getType());
+            assertEquals("TestEntyr", lookups.get(1).getWord());
+            return new LookupResult(Collections.singletonMap("TestEntry", Collections.singletonList(TEST_ENTRY)),
+                    Collections.singletonMap("TestEntyr", Collections.singletonList("TestEntry")));
+        });
+
+        mvc.perform(post("/entries/lookup")
+                .content("[{\"word\": \"TestEntry\", \"type\": \"test.\"}, \"TestEntyr\"]")
+                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries.TestEntry[0].definition", is("Test definition")))
+                .andExpect(jsonPath("$.suggestions.TestEntyr[0]", is("TestEntry")));
+    }
+
     @Test
     public void givenEntry_whenRequestedEntryAdd_returnJsonValue() throws Exception {
         when(dictionaryService.addNewEntry(TEST_ENTRY))
@@ -152,6 +297,45 @@ public class DictionaryControllerUnitTests {
                 .andExpect(jsonPath("$.word", is("TestEntry")));
     }
 
+    @Test
+    public void givenOperations_whenRequestedBatch_returnResultOfEveryOperation() throws Exception {
+        when(dictionaryService.applyBatch(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            List<EntryOperation> operations = invocation.getArgument(0);
+            assertEquals(EntryOperation.Type.CREATE, operations.get(0).getOp());
+            assertEquals(EntryOperation.Type.DELETE, operations.get(1).getOp());
+            return new BatchResult(false, Arrays.asList(
+                    new BatchResult.Item(424, null, null),
+                    new BatchResult.Item(404, 42L, "Entry not found with id \"42\"")));
+        });
+
+        mvc.perform(post("/entries/batch")
+                .content("[{\"op\": \"create\", \"word\": \"TestEntry\", \"wordtype\": \"test.\", \"definition\": \"Test definition\"}," +
+                        "{\"op\": \"delete\", \"id\": 42}]")
+                .contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.applied", is(false)))
+                .andExpect(jsonPath("$.results[0].status", is(424)))
+                .andExpect(jsonPath("$.results[1].message", is("Entry not found with id \"42\"")));
+    }
+
+    @Test
+    public void givenVersion_whenRequestedChanges_subscribeToChangesSinceVersion() throws Exception {
+        mvc.perform(get("/entries/changes?since=42")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(changeFeed).subscribe(ArgumentMatchers.any(SseEmitter.class), ArgumentMatchers.eq(42L));
+
+        mvc.perform(get("/entries/changes")
+                .header("Last-Event-ID", "7")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(changeFeed).subscribe(ArgumentMatchers.any(SseEmitter.class), ArgumentMatchers.eq(7L));
+
+        mvc.perform(get("/entries/changes?since=-1")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void givenEntry_whenRequestedEntryUpdate_returnVoidOk() throws Exception {
         TEST_ENTRY.setWord("UpdatedWord");
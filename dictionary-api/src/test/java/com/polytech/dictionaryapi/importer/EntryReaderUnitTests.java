@@ -0,0 +1,69 @@
+package com.polytech.dictionaryapi.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polytech.dictionaryapi.model.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntryReaderUnitTests {
+
+    @Test
+    public void givenCsv_whenQuotedFields_thenParsedWithHeaderSkipped() throws IOException {
+        String csv = "word,wordtype,definition\r\n" +
+                "Test,n.,\"First, \"\"quoted\"\" definition\"\r\n" +
+                "\n" +
+                "Test,v.,\"Multi\nline\"\n" +
+                "Broken,n.\n";
+
+        List<Entry> entries = readAll(new CsvEntryReader(new StringReader(csv)));
+        assertEquals(3, entries.size());
+        assertEquals("First, \"quoted\" definition", entries.get(0).getDefinition());
+        assertEquals("v.", entries.get(1).getWordtype());
+        assertEquals("Multi\nline", entries.get(1).getDefinition());
+        assertNull(entries.get(2).getWord());
+    }
+
+    @Test
+    public void givenOptedPage_whenParagraphs_thenEntriesParsed() throws IOException {
+        String html = "<html><head><title>A</title></head>\n" +
+                "<P><B>A</B> (<I></I>) The first letter of the English alphabet.</P>\n" +
+                "<P><B>Abandon</B> (<I>v. t.</I>) To give up &amp; <I>relinquish</I>.</P>\n" +
+                "</html>\n";
+
+        List<Entry> entries = readAll(new OptedEntryReader(new StringReader(html)));
+        assertEquals(2, entries.size());
+        assertEquals("A", entries.get(0).getWord());
+        assertEquals("", entries.get(0).getWordtype());
+        assertEquals("v. t.", entries.get(1).getWordtype());
+        assertEquals("To give up & relinquish.", entries.get(1).getDefinition());
+    }
+
+    @Test
+    public void givenNdjson_whenMalformedLine_thenEmptyEntry() throws IOException {
+        String ndjson = "{\"id\":5,\"word\":\"Test\",\"wordtype\":\"n.\",\"definition\":\"Test definition\"}\n" +
+                "\n" +
+                "{not json}\n";
+
+        List<Entry> entries = readAll(new NdjsonEntryReader(new StringReader(ndjson), new ObjectMapper()));
+        assertEquals(2, entries.size());
+        assertEquals("Test", entries.get(0).getWord());
+        assertNull(entries.get(0).getId());
+        assertNull(entries.get(1).getWord());
+    }
+
+    private static List<Entry> readAll(EntryReader reader) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (EntryReader entryReader = reader) {
+            for (Entry entry = entryReader.read(); entry != null; entry = entryReader.read()) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+}
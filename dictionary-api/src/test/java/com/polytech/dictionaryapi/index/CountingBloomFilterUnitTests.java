@@ -0,0 +1,51 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountingBloomFilterUnitTests {
+
+    private static final int WORDS = 100_000;
+
+    @Test
+    public void whenWordsAdded_thenNoFalseNegativesAndFewFalsePositives() {
+        CountingBloomFilter filter = new CountingBloomFilter(WORDS);
+        for (int i = 0; i < WORDS; i++) {
+            filter.add("word" + i);
+        }
+        for (int i = 0; i < WORDS; i++) {
+            assertTrue(filter.mightContain("word" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < WORDS; i++) {
+            if (filter.mightContain("absent" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < WORDS * 0.02, "False positive rate is " + falsePositives / (double) WORDS);
+    }
+
+    @Test
+    public void whenWordRemoved_thenOtherWordsStay() {
+        CountingBloomFilter filter = new CountingBloomFilter(16);
+        filter.add("spring");
+        filter.add("sprint");
+        filter.add("spring");
+        filter.remove("spring");
+        assertTrue(filter.mightContain("spring"));
+        filter.remove("spring");
+        assertFalse(filter.mightContain("spring"));
+        assertTrue(filter.mightContain("sprint"));
+    }
+
+    @Test
+    public void givenWordIndex_whenWordsChanged_thenFilterFollowsCaseInsensitive() {
+        WordFrequencyIndex wordIndex = new WordFrequencyIndex();
+        wordIndex.increment("Spring");
+        assertTrue(wordIndex.mightContain("SPRING"));
+        wordIndex.increment("spring");
+        wordIndex.decrement("Spring");
+        assertTrue(wordIndex.mightContain("Spring"));
+        wordIndex.decrement("spring");
+        assertFalse(wordIndex.mightContain("spring"));
+    }
+}
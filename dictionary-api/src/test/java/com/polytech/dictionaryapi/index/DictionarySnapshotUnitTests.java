@@ -0,0 +1,167 @@
+package com.polytech.dictionaryapi.index;
+
+import com.polytech.dictionaryapi.model.Entry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionarySnapshotUnitTests {
+
+    private DictionarySnapshot snapshot;
+
+    private static Entry entry(long id, String word, String wordtype, String definition) {
+        Entry entry = new Entry();
+        entry.setId(id);
+        entry.setWord(word);
+        entry.setWordtype(wordtype);
+        entry.setDefinition(definition);
+        return entry;
+    }
+
+    private static List<Long> ids(List<Entry> entries) {
+        return entries.stream().map(Entry::getId).collect(Collectors.toList());
+    }
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = DictionarySnapshot.of(Arrays.asList(
+                entry(4, "Spring", "v. i.", "To leap; to bound."),
+                entry(2, "Spring", "n.", "A season of the year."),
+                entry(3, "Abandon", "v. t.", "To give up wholly."),
+                entry(1, "Sprint", "n.", "A short run at full speed."),
+                entry(5, "Café", "n.", "A coffee house — où l'on boit.")));
+    }
+
+    @Test
+    public void whenBuilt_thenEntriesOrderedByWordAndId() {
+        assertEquals(5, snapshot.size());
+        assertEquals(Arrays.asList(3L, 5L, 2L, 4L, 1L), ids(snapshot.entries(snapshot.all(), 0, 10)));
+        assertEquals(Arrays.asList(5L, 2L), ids(snapshot.entries(snapshot.all(), 1, 3)));
+    }
+
+    @Test
+    public void whenFindById_thenDefinitionUnpacked() {
+        assertEquals(entry(5, "Café", "n.", "A coffee house — où l'on boit."), snapshot.findById(5));
+        assertEquals("v. i.", snapshot.findById(4).getWordtype());
+        assertNull(snapshot.findById(42));
+    }
+
+    @Test
+    public void whenQueriedByIndexes_thenCaseIgnored() {
+        assertEquals(Arrays.asList(2L, 4L, 1L), ids(snapshot.entries(snapshot.byLetter('s'), 0, 10)));
+        assertEquals(Arrays.asList(2L, 4L), ids(snapshot.entries(snapshot.byWord("SPRING"), 0, 10)));
+        assertEquals(Arrays.asList(5L, 2L, 1L), ids(snapshot.entries(snapshot.byType("N."), 0, 10)));
+        assertEquals(Arrays.asList(4L), ids(snapshot.entries(snapshot.byWordAndType("spring", "v. i."), 0, 10)));
+        assertEquals(0, snapshot.byWord("Summer").length);
+    }
+
+    @Test
+    public void whenSeekAfterCursor_thenNextPositionReturned() {
+        int[] positions = snapshot.byLetter('s');
+        assertEquals(0, snapshot.seek(positions, "Abandon", 3));
+        assertEquals(1, snapshot.seek(positions, "Spring", 2));
+        assertEquals(2, snapshot.seek(positions, "Spring", 4));
+        assertEquals(3, snapshot.seek(positions, "Sprint", 1));
+    }
+
+    @Test
+    public void whenModified_thenNewSnapshotReturned() {
+        DictionarySnapshot modified = snapshot
+                .with(entry(6, "Spa", "n.", "A mineral spring."))
+                .with(entry(2, "Spring", "n.", "The season after winter."))
+                .without(3);
+
+        assertEquals(5, snapshot.size());
+        assertEquals("A season of the year.", snapshot.findById(2).getDefinition());
+        assertEquals(Arrays.asList(5L, 6L, 2L, 4L, 1L), ids(modified.entries(modified.all(), 0, 10)));
+        assertEquals("The season after winter.", modified.findById(2).getDefinition());
+        assertEquals("A coffee house — où l'on boit.", modified.findById(5).getDefinition());
+        assertNull(modified.findById(3));
+        assertEquals(0, modified.byLetter('a').length);
+    }
+
+    @Test
+    public void whenModifiedByBatch_thenSameAsOneByOne() {
+        DictionarySnapshot modified = snapshot.with(Arrays.asList(
+                entry(6, "Spa", "n.", "A mineral spring."),
+                entry(2, "Spring", "n.", "The season after winter.")), Collections.singletonList(3L));
+
+        assertEquals(Arrays.asList(5L, 6L, 2L, 4L, 1L), ids(modified.entries(modified.all(), 0, 10)));
+        assertEquals("The season after winter.", modified.findById(2).getDefinition());
+        assertNull(modified.findById(3));
+        assertEquals(Collections.singletonList(6L), ids(modified.entries(modified.byWord("spa"), 0, 10)));
+    }
+
+    @Test
+    public void whenModifiedOneByOne_thenQueriesSeeChanges() {
+        DictionarySnapshot modified = snapshot
+                .with(entry(6, "Spa", "n.", "A mineral spring."))
+                .with(entry(4, "Abandon", "n.", "Freedom from constraint."))
+                .without(1);
+
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L, 2L), ids(modified.entries(modified.all(), 0, 10)));
+        assertEquals(Arrays.asList(6L, 2L), ids(modified.entries(modified.byLetter('s'), 0, 10)));
+        assertEquals(Arrays.asList(3L, 4L), ids(modified.entries(modified.byWord("abandon"), 0, 10)));
+        assertEquals(Arrays.asList(4L, 5L, 6L, 2L), ids(modified.entries(modified.byType("n."), 0, 10)));
+        assertEquals(Collections.singletonList(4L), ids(modified.entries(modified.byWordAndType("ABANDON", "N."), 0, 10)));
+        assertEquals(0, modified.byType("v. i.").length);
+
+        int[] positions = modified.all();
+        assertEquals(2, modified.seek(positions, "Abandon", 4));
+        assertEquals(4, modified.seek(positions, "Spa", 6));
+        assertEquals(5, modified.seek(positions, "Sprint", 1));
+    }
+
+    @Test
+    public void whenOverlayOutgrown_thenSameAsBuiltFromScratch() {
+        Random random = new Random(42);
+        List<Entry> entries = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            entries.add(entry(id, "Word" + random.nextInt(50), "n.", "Definition " + id));
+        }
+        DictionarySnapshot modified = DictionarySnapshot.of(entries);
+
+        for (int i = 0; i < DictionarySnapshot.MAX_OVERLAY_CHANGES * 4; i++) {
+            long id = 1 + random.nextInt(DictionarySnapshot.MAX_OVERLAY_CHANGES * 2);
+            entries.removeIf(entry -> entry.getId() == id);
+            if (random.nextInt(4) == 0) {
+                modified = modified.without(id);
+            } else {
+                Entry entry = entry(id, "Word" + random.nextInt(50), random.nextBoolean() ? "n." : "v.", "Definition " + i);
+                entries.add(entry);
+                modified = modified.with(entry);
+            }
+        }
+
+        DictionarySnapshot rebuilt = DictionarySnapshot.of(entries);
+        assertEquals(rebuilt.size(), modified.size());
+        assertEquals(ids(rebuilt.entries(rebuilt.all(), 0, entries.size())), ids(modified.entries(modified.all(), 0, entries.size())));
+        assertEquals(rebuilt.entries(rebuilt.all(), 0, entries.size()), modified.entries(modified.all(), 0, entries.size()));
+        assertEquals(ids(rebuilt.entries(rebuilt.byType("v."), 0, entries.size())),
+                ids(modified.entries(modified.byType("v."), 0, entries.size())));
+        assertEquals(ids(rebuilt.entries(rebuilt.byWord("word7"), 0, entries.size())),
+                ids(modified.entries(modified.byWord("word7"), 0, entries.size())));
+    }
+
+    //  like "C" collation of entries.word: upper case before lower case, code points above U+FFFF after U+FFFD
+    @Test
+    public void whenWordsCompared_thenOrderedByCodePoints() {
+        DictionarySnapshot modified = DictionarySnapshot.of(Arrays.asList(
+                entry(1, "\uD83D\uDE00", "n.", "Grinning face."),
+                entry(2, "b", "n.", "Letter."),
+                entry(3, "\uFFFD", "n.", "Replacement character.")))
+                .with(entry(4, "B", "n.", "Capital letter."));
+
+        assertEquals(Arrays.asList(4L, 2L, 3L, 1L), ids(modified.entries(modified.all(), 0, 10)));
+        assertEquals(3, modified.seek(modified.all(), "\uFFFD", 3));
+        assertEquals(2, modified.seek(modified.all(), "b", 2));
+    }
+}
@@ -0,0 +1,74 @@
+package com.polytech.dictionaryapi.index;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyIndexUnitTests {
+
+    private FuzzyIndex fuzzyIndex;
+
+    @BeforeEach
+    public void setUp() {
+        fuzzyIndex = new FuzzyIndex();
+        fuzzyIndex.load(Arrays.asList("Spring", "Sprint", "Table", "Aam", "A"));
+    }
+
+    @Test
+    public void whenQueryHasTypo_thenCandidatesContainWord() {
+        assertTrue(fuzzyIndex.candidates("Sprnig").contains("Spring"));
+        assertTrue(fuzzyIndex.candidates("Spirng").contains("Spring"));
+        assertTrue(fuzzyIndex.candidates("a").contains("A"));
+        assertFalse(fuzzyIndex.candidates("Sprnig").contains("Table"));
+    }
+
+    @Test
+    public void whenWordRemoved_thenNotCandidate() {
+        fuzzyIndex.remove("Spring");
+        assertFalse(fuzzyIndex.candidates("Sprnig").contains("Spring"));
+        assertTrue(fuzzyIndex.candidates("Sprnig").contains("Sprint"));
+
+        fuzzyIndex.add("Spring");
+        assertTrue(fuzzyIndex.candidates("Sprnig").contains("Spring"));
+    }
+
+    //  oracle is the scorer of FuzzySearch.extractSorted (weighted ratio with default processor) and its cutoff
+    @Test
+    public void givenRandomWords_whenWeightedRatioAboveCutoff_thenAlwaysCandidate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<String> words = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            words.add(randomWord(random));
+        }
+        fuzzyIndex.load(words);
+
+        for (int i = 0; i < 200; i++) {
+            String query = randomWord(random);
+            List<String> candidates = fuzzyIndex.candidates(query);
+            for (String word : words) {
+                if (FuzzySearch.weightedRatio(query, word) >= 80) {
+                    assertTrue(candidates.contains(word), word + " is missing for query " + query);
+                }
+            }
+        }
+    }
+
+    //  some words have several tokens, so partial, token sort and token set scorers of weighted ratio are exercised too
+    private static String randomWord(ThreadLocalRandom random) {
+        char[] chars = new char[random.nextInt(1, 9)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = i > 0 && i < chars.length - 1 && random.nextInt(8) == 0
+                    ? (random.nextBoolean() ? ' ' : '-')
+                    : (char) ('a' + random.nextInt(5));
+        }
+        return random.nextInt(10) == 0 ? Character.toUpperCase(chars[0]) + new String(chars, 1, chars.length - 1) : new String(chars);
+    }
+}
@@ -0,0 +1,131 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestionTrieUnitTests {
+
+    private SuggestionTrie suggestionTrie;
+
+    @BeforeEach
+    public void setUp() {
+        Map<String, Integer> testWords = new HashMap<>();
+        testWords.put("Spring", 5);
+        testWords.put("Sprint", 3);
+        testWords.put("Spry", 1);
+        testWords.put("Test", 2);
+
+        suggestionTrie = new SuggestionTrie(2);
+        suggestionTrie.load(testWords);
+    }
+
+    @Test
+    public void whenSuggestByPrefix_thenReturnMostFrequentWords() {
+        assertEquals(Arrays.asList("Spring", "Sprint"), suggestionTrie.suggest("Sp"));
+        assertEquals(Collections.singletonList("Spry"), suggestionTrie.suggest("Spry"));
+        assertEquals(Collections.emptyList(), suggestionTrie.suggest("Sq"));
+    }
+
+    @Test
+    public void whenCountChanged_thenTopIsRecomputed() {
+        suggestionTrie.setCount("Spry", 4);
+        assertEquals(Arrays.asList("Spring", "Spry"), suggestionTrie.suggest("Spr"));
+
+        suggestionTrie.setCount("Spring", 0);
+        assertEquals(Arrays.asList("Spry", "Sprint"), suggestionTrie.suggest("Spr"));
+        assertEquals(0, suggestionTrie.getCount("Spring"));
+        assertEquals(3, suggestionTrie.getCount("Sprint"));
+    }
+
+    @Test
+    public void whenWordRemoved_thenPrefixHasNoSuggestions() {
+        suggestionTrie.setCount("Test", 0);
+        assertEquals(Collections.emptyList(), suggestionTrie.suggest("T"));
+
+        suggestionTrie.setCount("Tested", 1);
+        assertEquals(Collections.singletonList("Tested"), suggestionTrie.suggest("Test"));
+    }
+
+    @Test
+    public void givenRandomWords_whenSuggest_thenMatchesFullScan() {
+        Map<String, Integer> randomWords = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 2000; i++) {
+            randomWords.put(randomWord(random), random.nextInt(1, 20));
+        }
+        SuggestionTrie randomTrie = new SuggestionTrie();
+        randomTrie.load(randomWords);
+
+        for (int i = 0; i < 500; i++) {
+            String word = randomWord(random);
+            if (random.nextBoolean()) {
+                int count = random.nextInt(0, 20);
+                randomTrie.setCount(word, count);
+                if (count == 0) randomWords.remove(word); else randomWords.put(word, count);
+            }
+            String prefix = word.substring(0, random.nextInt(1, word.length() + 1));
+            assertEquals(fullScan(randomWords, prefix), randomTrie.suggest(prefix));
+        }
+    }
+
+    @Test
+    public void givenConcurrentWriters_whenCountsChanged_thenMatchesFullScan() throws InterruptedException {
+        SuggestionTrie concurrentTrie = new SuggestionTrie();
+        List<Map<String, Integer>> expectedByThread = new ArrayList<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            //  every writer owns words ending with its own letter, first letters (and lock stripes) are shared
+            char owner = (char) ('w' + t);
+            Map<String, Integer> expected = new HashMap<>();
+            expectedByThread.add(expected);
+            writers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5000; i++) {
+                    String word = randomWord(random) + owner;
+                    int count = random.nextInt(0, 20);
+                    concurrentTrie.setCount(word, count);
+                    if (count == 0) expected.remove(word); else expected.put(word, count);
+                }
+            }));
+        }
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        Map<String, Integer> expectedWords = new HashMap<>();
+        expectedByThread.forEach(expectedWords::putAll);
+        for (String prefix : Arrays.asList("", "a", "b", "c", "d", "ab", "ca", "dd")) {
+            assertEquals(fullScan(expectedWords, prefix), concurrentTrie.suggest(prefix));
+        }
+        expectedWords.forEach((word, count) -> assertEquals((int) count, concurrentTrie.getCount(word)));
+    }
+
+    private static String randomWord(ThreadLocalRandom random) {
+        char[] chars = new char[random.nextInt(1, 6)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(chars);
+    }
+
+    private static List<String> fullScan(Map<String, Integer> words, String prefix) {
+        return words.entrySet().stream()
+                .filter(item -> item.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(SuggestionTrie.DEFAULT_LIMIT)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,45 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordCountsUnitTests {
+
+    @Test
+    public void whenCountDropsToZero_thenWordRemoved() {
+        WordCounts wordCounts = new WordCounts();
+        assertEquals(1, wordCounts.add("Spring", 1));
+        assertEquals(3, wordCounts.add("Spring", 2));
+        assertEquals(0, wordCounts.add("Sprint", -1));
+        assertEquals(1, wordCounts.size());
+
+        assertEquals(0, wordCounts.add("Spring", -3));
+        assertEquals(0, wordCounts.get("Spring"));
+        assertEquals(0, wordCounts.size());
+        assertTrue(wordCounts.words().isEmpty());
+    }
+
+    @Test
+    public void givenRandomOperations_whenCompared_thenSameAsHashMap() {
+        //  few distinct words and many removals make long probe chains with wrapped around clusters
+        Random random = new Random(42);
+        WordCounts wordCounts = new WordCounts();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            String word = "Word" + random.nextInt(2_000);
+            int delta = random.nextInt(5) - 2;
+            int count = Math.max(expected.getOrDefault(word, 0) + delta, 0);
+            if (count == 0) expected.remove(word); else expected.put(word, count);
+
+            assertEquals(count, wordCounts.add(word, delta));
+            if (i % 10_000 == 0) assertEquals(expected, wordCounts.toMap());
+        }
+        assertEquals(expected.size(), wordCounts.size());
+        expected.forEach((word, count) -> assertEquals(count.intValue(), wordCounts.get(word)));
+    }
+}
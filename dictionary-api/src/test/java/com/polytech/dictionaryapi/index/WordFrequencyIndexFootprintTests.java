@@ -0,0 +1,64 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ *  measures retained heap of the whole word index (counts, suggestion trie, fuzzy index and word filter) with JOL,
+ *  words themselves are shared by all its structures and are subtracted, so only per-word overhead is compared
+ *  bounds are relative to baselines built from the same words in the same run: ConcurrentHashMap<String, Integer>
+ *  is what WordFrequencyIndex used to keep its counts in, concurrent sets of words per bigram are what FuzzyIndex
+ *  used to keep its postings in
+ */
+public class WordFrequencyIndexFootprintTests {
+
+    private static final int WORDS = 150_000;
+
+    @Test
+    public void whenLoaded_thenIndexTakesLessThanBoxedCountsWithSetPostings() {
+        Map<String, Integer> wordCounts = new HashMap<>();
+        for (int i = 0; i < WORDS; i++) {
+            wordCounts.put("Word" + Integer.toString(i, 36), 1 + i % 7);
+        }
+        String[] words = wordCounts.keySet().toArray(new String[0]);
+        long wordsSize = GraphLayout.parseInstance((Object) words).totalSize() - VM.current().sizeOf(words);
+
+        ConcurrentHashMap<String, Integer> boxedCounts = new ConcurrentHashMap<>(wordCounts);
+        ConcurrentHashMap<Integer, Set<String>> setPostings = new ConcurrentHashMap<>();
+        for (String word : words) {
+            for (int gram : FuzzyIndex.grams(word)) {
+                setPostings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(word);
+            }
+        }
+        WordFrequencyIndex wordIndex = new WordFrequencyIndex();
+        wordIndex.load(wordCounts);
+        Object stripes = ReflectionTestUtils.getField(wordIndex, "stripes");
+        Object fuzzyIndex = ReflectionTestUtils.getField(wordIndex, "fuzzyIndex");
+
+        double bytesPerWord = (GraphLayout.parseInstance(wordIndex).totalSize() - wordsSize) / (double) WORDS;
+        double countsBytesPerWord = (GraphLayout.parseInstance(stripes).totalSize() - wordsSize) / (double) WORDS;
+        double fuzzyBytesPerWord = (GraphLayout.parseInstance(fuzzyIndex).totalSize() - wordsSize) / (double) WORDS;
+        double boxedBytesPerWord = (GraphLayout.parseInstance(boxedCounts).totalSize() - wordsSize) / (double) WORDS;
+        double setPostingsBytesPerWord = (GraphLayout.parseInstance(setPostings).totalSize() - wordsSize) / (double) WORDS;
+
+        assertEquals(WORDS, wordIndex.size());
+        //  counts, suggestion trie, fuzzy index and word filter together take less than counts and postings used to
+        assertTrue(bytesPerWord < boxedBytesPerWord + setPostingsBytesPerWord, format(
+                "word index takes %.1f bytes per word, boxed counts with set postings %.1f",
+                bytesPerWord, boxedBytesPerWord + setPostingsBytesPerWord));
+        assertTrue(countsBytesPerWord * 1.5 < boxedBytesPerWord, format("word counts take %.1f bytes per word, boxed map %.1f",
+                countsBytesPerWord, boxedBytesPerWord));
+        assertTrue(fuzzyBytesPerWord * 3 < setPostingsBytesPerWord, format("fuzzy index takes %.1f bytes per word, set postings %.1f",
+                fuzzyBytesPerWord, setPostingsBytesPerWord));
+    }
+}
@@ -0,0 +1,118 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordFrequencyIndexStressTests {
+
+    private static final int WRITER_THREADS = 8;
+    private static final int READER_THREADS = 4;
+    private static final int OPERATIONS_PER_WRITER = 50_000;
+    //  words sharing a prefix are written under one stripe lock, words of other first characters under other stripes
+    //  and meet them only in the root top
+    private static final List<String> WORDS = Stream.concat(
+            IntStream.range(0, 64).mapToObj(i -> "Word" + Integer.toString(i, 4)),
+            IntStream.range(0, 64).mapToObj(i -> (char) ('A' + i % 26) + "ord" + i))
+            .collect(Collectors.toList());
+
+    @Test
+    public void givenParallelWrites_whenFinished_thenCountsAreExact() throws Exception {
+        WordFrequencyIndex wordIndex = new WordFrequencyIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_THREADS + READER_THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        List<Future<Map<String, Integer>>> writers = IntStream.range(0, WRITER_THREADS)
+                .mapToObj(i -> executor.submit(() -> {
+                    //  every writer removes only what it has added itself, so the expected total is the sum of local counts
+                    Map<String, Integer> localCounts = new HashMap<>();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    start.await();
+                    for (int operation = 0; operation < OPERATIONS_PER_WRITER; operation++) {
+                        String word = WORDS.get(random.nextInt(WORDS.size()));
+                        if (random.nextInt(3) > 0 || localCounts.getOrDefault(word, 0) == 0) {
+                            wordIndex.increment(word);
+                            localCounts.merge(word, 1, Integer::sum);
+                        } else {
+                            wordIndex.decrement(word);
+                            localCounts.merge(word, -1, Integer::sum);
+                        }
+                    }
+                    return localCounts;
+                }))
+                .collect(Collectors.toList());
+
+        List<Future<Integer>> readers = IntStream.range(0, READER_THREADS)
+                .mapToObj(i -> executor.submit(() -> {
+                    int reads = 0;
+                    start.await();
+                    while (writing.get()) {
+                        wordIndex.words().forEach(word -> assertTrue(WORDS.contains(word)));
+                        assertTrue(wordIndex.suggest("Word").size() <= SuggestionTrie.DEFAULT_LIMIT);
+                        List<String> suggestions = wordIndex.suggest("");
+                        assertTrue(suggestions.size() <= SuggestionTrie.DEFAULT_LIMIT);
+                        suggestions.forEach(word -> assertTrue(WORDS.contains(word)));
+                        reads++;
+                    }
+                    return reads;
+                }))
+                .collect(Collectors.toList());
+
+        start.countDown();
+        Map<String, Integer> expectedCounts = new HashMap<>();
+        for (Future<Map<String, Integer>> writer : writers) {
+            writer.get(1, TimeUnit.MINUTES).forEach((word, count) -> expectedCounts.merge(word, count, Integer::sum));
+        }
+        writing.set(false);
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+        }
+        executor.shutdown();
+
+        expectedCounts.values().removeIf(count -> count == 0);
+        for (String word : WORDS) {
+            assertEquals(expectedCounts.getOrDefault(word, 0).intValue(), wordIndex.getCount(word), word);
+        }
+        assertEquals(expectedCounts.size(), wordIndex.size());
+        assertEquals(expectedCounts.keySet(), wordIndex.words());
+
+        assertEquals(expectedSuggestions(expectedCounts, "Word"), wordIndex.suggest("Word"));
+        assertEquals(expectedSuggestions(expectedCounts, "A"), wordIndex.suggest("A"));
+        assertEquals(expectedSuggestions(expectedCounts, ""), wordIndex.suggest(""));
+    }
+
+    private static List<String> expectedSuggestions(Map<String, Integer> counts, String prefix) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(SuggestionTrie.DEFAULT_LIMIT)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void whenDecrementMissingWord_thenNothingChanges() {
+        WordFrequencyIndex wordIndex = new WordFrequencyIndex();
+        assertEquals(0, wordIndex.decrement("Missing"));
+        assertEquals(1, wordIndex.increment("Present"));
+        assertEquals(2, wordIndex.increment("Present"));
+        assertEquals(1, wordIndex.decrement("Present"));
+        assertEquals(1, wordIndex.size());
+        assertTrue(wordIndex.suggest("M").isEmpty());
+    }
+}
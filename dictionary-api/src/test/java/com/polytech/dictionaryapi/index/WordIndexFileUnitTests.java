@@ -0,0 +1,72 @@
+package com.polytech.dictionaryapi.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordIndexFileUnitTests {
+
+    private Path snapshotFile;
+    private Map<String, Integer> testWords;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        snapshotFile = Files.createTempFile("words", ".bin");
+        testWords = new HashMap<>();
+        testWords.put("Spring", 5);
+        testWords.put("Sprint", 3);
+        testWords.put("Café", 1);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Test
+    public void whenSnapshotWritten_thenSameCountsRead() throws IOException {
+        WordIndexFile.write(snapshotFile, WordCounts.of(testWords));
+        assertEquals(testWords, WordIndexFile.read(snapshotFile).toMap());
+
+        WordIndexFile.write(snapshotFile, new WordCounts());
+        assertEquals(Collections.emptyMap(), WordIndexFile.read(snapshotFile).toMap());
+    }
+
+    @Test
+    public void whenSnapshotTruncatedOrForeign_thenIOException() throws IOException {
+        WordIndexFile.write(snapshotFile, WordCounts.of(testWords));
+        byte[] content = Files.readAllBytes(snapshotFile);
+        Files.write(snapshotFile, Arrays.copyOf(content, content.length - 2));
+        assertThrows(IOException.class, () -> WordIndexFile.read(snapshotFile));
+
+        Files.write(snapshotFile, "word,count".getBytes());
+        assertThrows(IOException.class, () -> WordIndexFile.read(snapshotFile));
+    }
+
+    @Test
+    public void givenStaleSnapshot_whenReconciled_thenOnlyDifferencesApplied() {
+        WordFrequencyIndex wordIndex = new WordFrequencyIndex();
+        wordIndex.load(testWords);
+
+        Map<String, Integer> databaseWords = new HashMap<>(testWords);
+        databaseWords.remove("Sprint");
+        databaseWords.put("Spring", 6);
+        databaseWords.put("Spry", 2);
+
+        assertEquals(3, wordIndex.reconcile(databaseWords));
+        assertEquals(databaseWords, wordIndex.toMap());
+        assertEquals(Arrays.asList("Spring", "Spry"), wordIndex.suggest("Sp"));
+        assertFalse(wordIndex.words().contains("Sprint"));
+        assertEquals(0, wordIndex.reconcile(databaseWords));
+    }
+}
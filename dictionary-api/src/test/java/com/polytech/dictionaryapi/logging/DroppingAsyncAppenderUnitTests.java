@@ -0,0 +1,57 @@
+package com.polytech.dictionaryapi.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DroppingAsyncAppenderUnitTests {
+
+    @Test
+    public void givenStuckWriter_whenQueueIsFull_thenEventsAreDroppedAndCounted() throws InterruptedException {
+        LoggerContext context = new LoggerContext();
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> stuckWriter = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                taken.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        stuckWriter.setContext(context);
+        stuckWriter.start();
+
+        DroppingAsyncAppender appender = new DroppingAsyncAppender();
+        appender.setContext(context);
+        appender.setName("ASYNC_TEST");
+        appender.setQueueSize(1);
+        appender.setNeverBlock(true);
+        appender.addAppender(stuckWriter);
+        appender.start();
+        Logger logger = context.getLogger("test");
+        logger.addAppender(appender);
+
+        try {
+            logger.warn("written");
+            taken.await();
+            logger.warn("queued");
+            for (int i = 0; i < 10; i++) {
+                logger.warn("dropped");
+            }
+            assertEquals(10, appender.getDroppedCount());
+        } finally {
+            released.countDown();
+            appender.stop();
+        }
+    }
+}
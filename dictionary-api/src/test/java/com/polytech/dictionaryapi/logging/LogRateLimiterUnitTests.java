@@ -0,0 +1,25 @@
+package com.polytech.dictionaryapi.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogRateLimiterUnitTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void whenBurstLogged_thenOnlyPermitsPassAndSuppressedAreReported() {
+        LogRateLimiter limiter = new LogRateLimiter(2, 1, TimeUnit.SECONDS);
+        assertEquals(0, limiter.acquire("ResourceNotFoundException", 0));
+        assertEquals(0, limiter.acquire("ResourceNotFoundException", 1));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(LogRateLimiter.SUPPRESSED, limiter.acquire("ResourceNotFoundException", 2 + i));
+        }
+        assertEquals(0, limiter.acquire("BadResourceException", 20));
+        assertEquals(10, limiter.acquire("ResourceNotFoundException", SECOND));
+        assertEquals(0, limiter.acquire("ResourceNotFoundException", SECOND + 1));
+    }
+}
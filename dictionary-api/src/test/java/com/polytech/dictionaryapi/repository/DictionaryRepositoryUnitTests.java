@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.domain.Page;
@@ -19,7 +20,9 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,6 +34,7 @@ import static org.junit.jupiter.api.Assertions.*;
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ContextConfiguration(initializers = { DictionaryRepositoryUnitTests.Initializer.class })
+@Import(EntryIndexVerifier.class)
 public class DictionaryRepositoryUnitTests {
 
     private Entry testEntry;
@@ -44,6 +48,9 @@ public class DictionaryRepositoryUnitTests {
     @Autowired
     private EntryRepository entryRepository;
 
+    @Autowired
+    private EntryIndexVerifier entryIndexVerifier;
+
     @BeforeAll
     static void init() {
         dictionaryContainer.start();
@@ -121,6 +128,41 @@ public class DictionaryRepositoryUnitTests {
         entityManager.persistAndFlush(testEntry);
     }
 
+    @Test
+    public void whenFindByFullText_thenStemmedWordsMatch() {
+        Entry foxEntry = new Entry();
+        foxEntry.setWord("TestFox");
+        foxEntry.setWordtype("test.");
+        foxEntry.setDefinition("Quick brown foxes jumping over lazy dogs");
+        entityManager.persistAndFlush(foxEntry);
+
+        Page<Entry> foundEntries = entryRepository.findByFullText("testfox jumped", PageRequest.of(0, 10));
+        assertEquals(Collections.singletonList(foxEntry), foundEntries.getContent());
+        assertFalse(entryRepository.findByFullText("\"lazy foxes\"", PageRequest.of(0, 10)).getContent().contains(foxEntry));
+
+        entityManager.remove(foxEntry);
+    }
+
+    @Test
+    public void whenInsertIfAbsent_thenDuplicateOfAnyCaseIsNotInserted() {
+        Entry duplicateEntry = new Entry();
+        duplicateEntry.setWord("TESTENTRY");
+        duplicateEntry.setWordtype("test.");
+        duplicateEntry.setDefinition("Test definition");
+        assertFalse(entryRepository.insertIfAbsent(duplicateEntry).isPresent());
+
+        duplicateEntry.setDefinition("Other test definition");
+        Optional<Long> id = entryRepository.insertIfAbsent(duplicateEntry);
+        assertTrue(id.isPresent());
+        assertEquals(duplicateEntry, entryRepository.findById(id.get()).get());
+        assertFalse(entryRepository.insertIfAbsent(duplicateEntry).isPresent());
+    }
+
+    @Test
+    public void whenExplainSpecifications_thenAllIndexBacked() {
+        assertEquals(Collections.emptyList(), entryIndexVerifier.findUnindexedSpecifications());
+    }
+
     static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
 
         @Override
@@ -0,0 +1,97 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.Entry_;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/*
+ *  Compares full-text search over tsvector GIN index with LIKE '%x%' scan of definitions over the whole OPTED dictionary
+ *  both sides request the first page of 10 entries including total count, run with 'gradlew benchmark'
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = { FullTextSearchBenchmark.Initializer.class })
+public class FullTextSearchBenchmark {
+
+    private static final int PER_PAGE = 10;
+    private static final int ITERATIONS = 20;
+    private static final String[] QUERIES = { "water", "musical instrument", "king", "inflammation", "zygote" };
+
+    @Container
+    public static PostgreSQLContainer<?> dictionaryContainer = new PostgreSQLContainer<>("dictionary-postgres");
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @BeforeAll
+    static void init() {
+        dictionaryContainer.start();
+    }
+
+    @AfterAll
+    static void shutDown() {
+        dictionaryContainer.stop();
+    }
+
+    @Test
+    public void benchmarkFullTextAndLikeSearch() {
+        System.out.println(format("%-20s %10s %14s %10s %14s", "query", "matches", "fulltext, ms", "like rows", "like, ms"));
+        for (String query : QUERIES) {
+            Specification<Entry> likeSpecification = (root, criteriaQuery, criteriaBuilder) ->
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get(Entry_.definition)), "%" + query + "%");
+
+            long matches = entryRepository.findByFullText(query, PageRequest.of(0, PER_PAGE)).getTotalElements();
+            long likeRows = entryRepository.findAll(likeSpecification, PageRequest.of(0, PER_PAGE)).getTotalElements();
+            double fullTextMillis = measure(() -> entryRepository.findByFullText(query, PageRequest.of(0, PER_PAGE)));
+            double likeMillis = measure(() -> entryRepository.findAll(likeSpecification, PageRequest.of(0, PER_PAGE)));
+
+            System.out.println(format("%-20s %10d %14.3f %10d %14.3f", query, matches, fullTextMillis, likeRows, likeMillis));
+        }
+    }
+
+    private static double measure(Supplier<Page<Entry>> search) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + format("jdbc:postgresql://%s:%d/dictionary_db?loggerLevel=OFF", dictionaryContainer.getContainerIpAddress(), dictionaryContainer.getMappedPort(5432)),
+                    "spring.datasource.username=" + dictionaryContainer.getUsername(),
+                    "spring.datasource.password=" + dictionaryContainer.getPassword()
+            ).applyTo(applicationContext.getEnvironment());
+        }
+    }
+}
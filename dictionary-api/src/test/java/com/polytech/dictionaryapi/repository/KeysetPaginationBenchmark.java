@@ -0,0 +1,109 @@
+package com.polytech.dictionaryapi.repository;
+
+import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.specification.EntrySpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ *  Compares OFFSET and keyset pagination latency over the whole OPTED dictionary from dictionary-postgres image
+ *  run with 'gradlew benchmark', results are printed to standard output
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = { KeysetPaginationBenchmark.Initializer.class })
+public class KeysetPaginationBenchmark {
+
+    private static final int PER_PAGE = 10;
+    private static final int ITERATIONS = 20;
+
+    @Container
+    public static PostgreSQLContainer<?> dictionaryContainer = new PostgreSQLContainer<>("dictionary-postgres");
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @BeforeAll
+    static void init() {
+        dictionaryContainer.start();
+    }
+
+    @AfterAll
+    static void shutDown() {
+        dictionaryContainer.stop();
+    }
+
+    @Test
+    public void benchmarkOffsetAndKeysetPages() {
+        long total = entryRepository.count();
+        int lastPage = (int) ((total - 1) / PER_PAGE);
+        assertTrue(lastPage > 0, "Dictionary is empty");
+
+        System.out.println(format("%-10s %-8s %14s %14s", "page", "%", "offset, ms", "keyset, ms"));
+        for (int percent : new int[] { 0, 10, 25, 50, 75, 90, 100 }) {
+            int pageNumber = lastPage * percent / 100;
+            Specification<Entry> seekSpecification = seekSpecificationForPage(pageNumber);
+
+            double offsetMillis = measure(() -> entryRepository.findAll(EntrySpecification.orderByWordAndId(),
+                    PageRequest.of(pageNumber, PER_PAGE)).getContent());
+            double keysetMillis = measure(() -> entryRepository.findTop(seekSpecification, PER_PAGE + 1));
+
+            System.out.println(format("%-10d %-8d %14.3f %14.3f", pageNumber, percent, offsetMillis, keysetMillis));
+        }
+    }
+
+    private Specification<Entry> seekSpecificationForPage(int pageNumber) {
+        Specification<Entry> orderSpecification = Specification.where(EntrySpecification.orderByWordAndId());
+        if (pageNumber == 0) return orderSpecification;
+
+        Entry previous = entryRepository.findAll(EntrySpecification.orderByWordAndId(),
+                PageRequest.of(pageNumber * PER_PAGE - 1, 1)).getContent().get(0);
+        return orderSpecification.and(EntrySpecification.getEntriesAfter(previous.getWord(), previous.getId()));
+    }
+
+    private static double measure(Supplier<List<Entry>> query) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertFalse(query.get().isEmpty());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + format("jdbc:postgresql://%s:%d/dictionary_db?loggerLevel=OFF", dictionaryContainer.getContainerIpAddress(), dictionaryContainer.getMappedPort(5432)),
+                    "spring.datasource.username=" + dictionaryContainer.getUsername(),
+                    "spring.datasource.password=" + dictionaryContainer.getPassword()
+            ).applyTo(applicationContext.getEnvironment());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.polytech.dictionaryapi.service;
+
+import com.polytech.dictionaryapi.model.EntryChange;
+import com.polytech.dictionaryapi.repository.EntryChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChangeFeedUnitTests {
+
+    private EntryChangeRepository entryChangeRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeFeed changeFeed;
+    //  tasks of 'changeExecutor' and 'changeReplayExecutor' run only by runTasks(), like senders of a busy pool
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        entryChangeRepository = mock(EntryChangeRepository.class);
+        when(entryChangeRepository.findAfter(anyLong(), anyLong(), anyInt())).thenReturn(Collections.emptyList());
+        meterRegistry = new SimpleMeterRegistry();
+        tasks.clear();
+
+        changeFeed = new ChangeFeed();
+        ReflectionTestUtils.setField(changeFeed, "entryChangeRepository", entryChangeRepository);
+        ReflectionTestUtils.setField(changeFeed, "changeExecutor", (Executor) tasks::add);
+        ReflectionTestUtils.setField(changeFeed, "changeReplayExecutor", (Executor) tasks::add);
+        ReflectionTestUtils.setField(changeFeed, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(changeFeed, "queueCapacity", 2);
+        ReflectionTestUtils.setField(changeFeed, "retentionDays", 30);
+        ReflectionTestUtils.setField(changeFeed, "sendTimeout", 10_000L);
+        ReflectionTestUtils.invokeMethod(changeFeed, "registerMeters");
+        //  no background polling, tests call poll() themselves
+        ReflectionTestUtils.invokeMethod(changeFeed, "stop");
+    }
+
+    private static EntryChange change(long version) {
+        return new EntryChange(version, "create", version, "Word" + version, "n.", "Definition", 0L);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) tasks.remove(0).run();
+    }
+
+    @Test
+    public void givenSubscriberSince_whenChangesPublished_thenReplayedAndStreamedOnceInOrder() {
+        ReflectionTestUtils.setField(changeFeed, "lastPublished", 3L);
+        when(entryChangeRepository.findAfter(1L, 3L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(2), change(3)));
+        when(entryChangeRepository.findTakenVersion()).thenReturn(4L);
+        when(entryChangeRepository.findAfter(3L, 4L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(4)));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, 1L);
+        //  published while the subscriber still replays
+        changeFeed.poll();
+        runTasks();
+        assertEquals(Arrays.asList(2L, 3L, 4L), emitter.versions);
+
+        when(entryChangeRepository.findTakenVersion()).thenReturn(5L);
+        when(entryChangeRepository.findAfter(4L, 5L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(5)));
+        changeFeed.poll();
+        runTasks();
+        assertEquals(Arrays.asList(2L, 3L, 4L, 5L), emitter.versions);
+    }
+
+    @Test
+    public void givenVersionOfRunningTransaction_whenPolled_thenLaterVersionsWaitUntilItFinishes() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        runTasks();
+        //  version 1 is taken by transaction 95 that is still running, version 2 is committed
+        when(entryChangeRepository.findTakenVersion()).thenReturn(2L);
+        when(entryChangeRepository.findWritingTransactions()).thenReturn(Collections.singletonList(95L));
+        when(entryChangeRepository.findRunningTransactions(Collections.singleton(95L))).thenReturn(Collections.singletonList(95L));
+        when(entryChangeRepository.findAfter(0L, 2L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(2)));
+
+        changeFeed.poll();
+        runTasks();
+        assertTrue(emitter.versions.isEmpty());
+
+        //  committed late, while transaction 101 took version 3
+        when(entryChangeRepository.findTakenVersion()).thenReturn(3L);
+        when(entryChangeRepository.findWritingTransactions()).thenReturn(Collections.singletonList(101L));
+        when(entryChangeRepository.findRunningTransactions(new HashSet<>(Arrays.asList(95L, 101L))))
+                .thenReturn(Collections.singletonList(101L));
+        when(entryChangeRepository.findAfter(0L, 2L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(1), change(2)));
+        changeFeed.poll();
+        runTasks();
+        assertEquals(Arrays.asList(1L, 2L), emitter.versions);
+    }
+
+    @Test
+    public void givenRolledBackVersion_whenPolled_thenSkippedWithoutWaiting() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        runTasks();
+        when(entryChangeRepository.findTakenVersion()).thenReturn(2L);
+        when(entryChangeRepository.findAfter(0L, 2L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(2)));
+
+        changeFeed.poll();
+        runTasks();
+        assertEquals(Collections.singletonList(2L), emitter.versions);
+
+        when(entryChangeRepository.findTakenVersion()).thenReturn(4L);
+        when(entryChangeRepository.findAfter(2L, 4L, ChangeFeed.PAGE_SIZE)).thenReturn(Collections.emptyList());
+        when(entryChangeRepository.findAfter(4L, 5L, ChangeFeed.PAGE_SIZE)).thenReturn(Arrays.asList(change(5)));
+        changeFeed.poll();
+        when(entryChangeRepository.findTakenVersion()).thenReturn(5L);
+        changeFeed.poll();
+        runTasks();
+        assertEquals(Arrays.asList(2L, 5L), emitter.versions);
+    }
+
+    @Test
+    public void givenSincePruned_whenSubscribed_thenToldToReloadAndClosed() {
+        ReflectionTestUtils.setField(changeFeed, "lastPublished", 20L);
+        when(entryChangeRepository.findFirstVersion()).thenReturn(10L);
+
+        RecordingEmitter replayable = new RecordingEmitter();
+        changeFeed.subscribe(replayable, 9L);
+        RecordingEmitter expired = new RecordingEmitter();
+        changeFeed.subscribe(expired, 8L);
+        runTasks();
+        assertTrue(replayable.events.isEmpty());
+        assertEquals(Collections.singletonList("expired"), expired.events);
+        assertEquals(1, meterRegistry.get("dictionary.changes.subscribers").gauge().value());
+
+        changeFeed.prune();
+        verify(entryChangeRepository).deleteExpired(20L, 30);
+    }
+
+    @Test
+    public void givenSlowSubscriber_whenQueueOverflows_thenToldToReconnectAndClosed() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        changeFeed.subscribe(emitter, null);
+        when(entryChangeRepository.findTakenVersion()).thenReturn(3L);
+        when(entryChangeRepository.findAfter(0L, 3L, ChangeFeed.PAGE_SIZE))
+                .thenReturn(Arrays.asList(change(1), change(2), change(3)));
+
+        changeFeed.poll();
+        runTasks();
+        assertTrue(emitter.versions.isEmpty());
+        assertEquals(Collections.singletonList("overflow"), emitter.events);
+        assertEquals(1, meterRegistry.get("dictionary.changes.overflows").counter().count());
+        assertEquals(0, meterRegistry.get("dictionary.changes.subscribers").gauge().value());
+    }
+
+    @Test
+    public void givenSendBlockedLongerThanTimeout_whenChecked_thenSubscriberClosedWithError() {
+        ReflectionTestUtils.setField(changeFeed, "sendTimeout", 0L);
+        //  the check runs while the change is being sent, like poller does next to a sender blocked on the socket
+        RecordingEmitter emitter = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                changeFeed.closeBlockedSubscribers();
+                super.send(builder);
+            }
+        };
+        changeFeed.subscribe(emitter, null);
+        runTasks();
+        when(entryChangeRepository.findTakenVersion()).thenReturn(1L);
+        when(entryChangeRepository.findAfter(0L, 1L, ChangeFeed.PAGE_SIZE)).thenReturn(Collections.singletonList(change(1)));
+
+        changeFeed.poll();
+        runTasks();
+        assertTrue(emitter.failed);
+        assertEquals(1, meterRegistry.get("dictionary.changes.timeouts").counter().count());
+        assertEquals(0, meterRegistry.get("dictionary.changes.subscribers").gauge().value());
+
+        //  an idle subscriber isn't closed however long it waits for changes
+        RecordingEmitter idle = new RecordingEmitter();
+        changeFeed.subscribe(idle, null);
+        runTasks();
+        changeFeed.closeBlockedSubscribers();
+        assertEquals(1, meterRegistry.get("dictionary.changes.subscribers").gauge().value());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<Long> versions = new ArrayList<>();
+        private final List<String> events = new ArrayList<>();
+        private boolean failed;
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().forEach(part -> {
+                if (part.getData() instanceof EntryChange) {
+                    versions.add(((EntryChange) part.getData()).getVersion());
+                } else if (part.getData().toString().contains("event:overflow")) {
+                    events.add("overflow");
+                } else if (part.getData().toString().contains("event:expired")) {
+                    events.add("expired");
+                }
+            });
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package com.polytech.dictionaryapi.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.polytech.dictionaryapi.exception.BadResourceException;
 import com.polytech.dictionaryapi.exception.ResourceAlreadyExistsException;
 import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import com.polytech.dictionaryapi.exporter.ExportFormat;
+import com.polytech.dictionaryapi.index.DictionarySnapshot;
+import com.polytech.dictionaryapi.index.WordFrequencyIndex;
+import com.polytech.dictionaryapi.model.BatchResult;
+import com.polytech.dictionaryapi.model.CursorPage;
 import com.polytech.dictionaryapi.model.Entry;
+import com.polytech.dictionaryapi.model.EntryCursor;
+import com.polytech.dictionaryapi.model.EntryOperation;
+import com.polytech.dictionaryapi.model.LookupResult;
+import com.polytech.dictionaryapi.model.WordLookup;
+import com.polytech.dictionaryapi.repository.EntryBatchRepository;
 import com.polytech.dictionaryapi.repository.EntryRepository;
 import com.polytech.dictionaryapi.specification.EntrySpecification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,18 +27,37 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -38,6 +69,18 @@ public class DictionaryServiceUnitTests {
     @Mock
     private EntryRepository mockedEntryRepository;
 
+    @Mock
+    private EntryBatchRepository mockedEntryBatchRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private static DictionaryService dictionaryService;
 
@@ -48,9 +91,10 @@ public class DictionaryServiceUnitTests {
         testEntry.setWordtype("test.");
         testEntry.setDefinition("Test definition");
 
-        HashMap<String, Integer> testDistinctWords = new HashMap<>();
-        testDistinctWords.put(testEntry.getWord(), 1);
+        WordFrequencyIndex testDistinctWords = new WordFrequencyIndex();
+        testDistinctWords.increment(testEntry.getWord());
         ReflectionTestUtils.setField(dictionaryService, "distinctWords", testDistinctWords);
+        ReflectionTestUtils.setField(dictionaryService, "searchExecutor", (Executor) Runnable::run);
     }
 
     @BeforeEach
@@ -64,16 +108,52 @@ public class DictionaryServiceUnitTests {
 
     @Test
     public void whenFindById_thenReturnEntry() {
-        when(mockedEntryRepository.existsById(1234567L)).thenReturn(true);
         when(mockedEntryRepository.findById(1234567L)).thenReturn(Optional.ofNullable(testEntry));
 
         Entry foundEntry = dictionaryService.findById(1234567L);
         assertEquals(testEntry, foundEntry);
     }
 
+    @Test
+    public void whenFindByIdRepeated_thenServedFromCacheUntilUpdate() {
+        testEntry.setId(7654321L);
+        clearInvocations(mockedEntryRepository);
+        when(mockedEntryRepository.findById(7654321L)).thenReturn(Optional.ofNullable(testEntry));
+
+        long hitCount = dictionaryService.getEntryCacheStats().get("hitCount").longValue();
+        assertEquals(testEntry, dictionaryService.findById(7654321L));
+        assertEquals(testEntry, dictionaryService.findById(7654321L));
+        verify(mockedEntryRepository, times(1)).findById(7654321L);
+        verify(mockedEntryRepository, never()).existsById(7654321L);
+        assertEquals(hitCount + 1, dictionaryService.getEntryCacheStats().get("hitCount").longValue());
+
+        dictionaryService.updateEntry(testEntry);
+        dictionaryService.findById(7654321L);
+        verify(mockedEntryRepository, times(2)).findById(7654321L);
+    }
+
+    @Test
+    public void whenEntryUpdated_thenVersionTagsOfDictionaryAndEntryChange() {
+        testEntry.setId(7654321L);
+        when(mockedEntryRepository.findById(7654321L)).thenReturn(Optional.ofNullable(testEntry));
+
+        String dictionaryTag = dictionaryService.getVersionTag();
+        String entryTag = dictionaryService.getEntryVersionTag(7654321L);
+        String otherEntryTag = dictionaryService.getEntryVersionTag(42L);
+        assertEquals(dictionaryTag, dictionaryService.getVersionTag());
+
+        clearInvocations(changeFeed);
+        dictionaryService.updateDefinitionById(7654321L, "Updated test definition");
+        verify(changeFeed).changed();
+        assertNotEquals(dictionaryTag, dictionaryService.getVersionTag());
+        assertNotEquals(entryTag, dictionaryService.getEntryVersionTag(7654321L));
+        assertEquals(otherEntryTag, dictionaryService.getEntryVersionTag(42L));
+        assertTrue(dictionaryService.getLastModified() <= System.currentTimeMillis());
+    }
+
     @Test
     public void givenEntry_whenAddValidEntry_thenSaveEntry() {
-        when(mockedEntryRepository.save(testEntry)).thenReturn(testEntry);
+        when(mockedEntryRepository.insertIfAbsent(testEntry)).thenReturn(Optional.of(1234567L));
 
         Entry savedEntry = dictionaryService.addNewEntry(testEntry);
         assertEquals(testEntry, savedEntry);
@@ -81,11 +161,10 @@ public class DictionaryServiceUnitTests {
 
     @Test
     public void whenDeletedById_thenNotFound() {
-        when(mockedEntryRepository.existsById(1234567L)).thenReturn(true);
         when(mockedEntryRepository.findById(1234567L)).thenReturn(Optional.ofNullable(testEntry));
         dictionaryService.deleteById(testEntry.getId());
 
-        when(mockedEntryRepository.existsById(1234567L)).thenReturn(false);
+        when(mockedEntryRepository.findById(1234567L)).thenReturn(Optional.empty());
         Exception exception = assertThrows(ResourceNotFoundException.class, () -> dictionaryService.findById(testEntry.getId()));
         assertEquals("Entry not found with id \"1234567\"", exception.getMessage());
 
@@ -118,11 +197,16 @@ public class DictionaryServiceUnitTests {
 
     @Test
     public void whenAddNewInvalidEntry_thenBadResource() {
-        ArgumentCaptor<EntrySpecification> entrySpecificationArgumentCaptor = ArgumentCaptor.forClass(EntrySpecification.class);
-        when(mockedEntryRepository.findAll((Specification<Entry>) entrySpecificationArgumentCaptor.capture())).thenReturn(Collections.singletonList(testEntry));
+        clearInvocations(mockedEntryRepository);
+        when(mockedEntryRepository.insertIfAbsent(testEntry)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(ResourceAlreadyExistsException.class, () -> dictionaryService.addNewEntry(testEntry));
         assertEquals("Entry for word \"TestEntry\" with specified definition already exists", exception.getMessage());
+        verify(mockedEntryRepository, never()).findAll(ArgumentMatchers.<Specification<Entry>>any());
+
+        testEntry.setWord("Pneumonoultramicroscopicsilicovolcanoconiosis");
+        exception = assertThrows(BadResourceException.class, () -> dictionaryService.addNewEntry(testEntry));
+        assertEquals("Entry has too long word or type", exception.getMessage());
 
         testEntry.setDefinition("");
         exception = assertThrows(BadResourceException.class, () -> dictionaryService.addNewEntry(testEntry));
@@ -163,14 +247,235 @@ public class DictionaryServiceUnitTests {
         assertEquals("Definition is NULL", exception.getMessage());
     }
 
+    @Test
+    public void whenFindAllWithCursor_thenReturnNextCursor() {
+        List<Entry> testEntries = LongStream.rangeClosed(1, 11)
+                .mapToObj(id -> {
+                    Entry entry = new Entry();
+                    entry.setId(id);
+                    entry.setWord("TestEntry");
+                    return entry;
+                })
+                .collect(Collectors.toList());
+        when(mockedEntryRepository.findTop(any(), eq(11))).thenReturn(testEntries);
+
+        CursorPage<Entry> firstPage = dictionaryService.findAll("", 10);
+        assertEquals(10, firstPage.getNumberOfElements());
+        assertFalse(firstPage.isLast());
+        EntryCursor nextCursor = EntryCursor.decode(firstPage.getNext());
+        assertEquals("TestEntry", nextCursor.getWord());
+        assertEquals(10L, nextCursor.getId());
+
+        when(mockedEntryRepository.findTop(any(), eq(11))).thenReturn(testEntries.subList(10, 11));
+        CursorPage<Entry> lastPage = dictionaryService.findAll(firstPage.getNext(), 10);
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertTrue(lastPage.isLast());
+
+        Exception exception = assertThrows(BadResourceException.class, () -> dictionaryService.findAll("not a cursor", 10));
+        assertEquals("Invalid cursor \"not a cursor\"", exception.getMessage());
+    }
+
+    @Test
+    public void whenPageTotalCached_thenCountSkippedUntilWrite() {
+        clearInvocations(mockedEntryRepository);
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        List<Entry> testEntries = Collections.singletonList(testEntry);
+        when(mockedEntryRepository.findAll(ArgumentMatchers.<Specification<Entry>>any(), eq(pageRequest)))
+                .thenReturn(new PageImpl<>(testEntries, pageRequest, 25));
+        when(mockedEntryRepository.findSlice(any(), eq(pageRequest)))
+                .thenReturn(new SliceImpl<>(testEntries, pageRequest, true));
+
+        assertEquals(25, dictionaryService.findByType("Count.", 0, 10).getTotalElements());
+        assertEquals(25, dictionaryService.findByType("count.", 0, 10).getTotalElements());
+        verify(mockedEntryRepository, times(1)).findAll(ArgumentMatchers.<Specification<Entry>>any(), eq(pageRequest));
+        verify(mockedEntryRepository, times(1)).findSlice(any(), eq(pageRequest));
+
+        when(mockedEntryRepository.insertIfAbsent(testEntry)).thenReturn(Optional.of(1234567L));
+        dictionaryService.addNewEntry(testEntry);
+        dictionaryService.findByType("count.", 0, 10);
+        verify(mockedEntryRepository, times(2)).findAll(ArgumentMatchers.<Specification<Entry>>any(), eq(pageRequest));
+    }
+
+    @Test
+    public void whenBatchApplied_thenWrittenInOneTransactionAndWordIndexUpdated() {
+        Entry oldEntry = new Entry();
+        oldEntry.setId(42L);
+        oldEntry.setWord("Batchold");
+        oldEntry.setWordtype("n.");
+        oldEntry.setDefinition("Old definition");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(mockedEntryBatchRepository.findAllByIdsForUpdate(any())).thenReturn(Collections.singletonList(oldEntry));
+        when(mockedEntryBatchRepository.nextIds(1)).thenReturn(Collections.singletonList(43L));
+        when(mockedEntryBatchRepository.updateAll(any())).thenReturn(new boolean[] { true });
+        when(mockedEntryBatchRepository.insertAllWithIds(any())).thenReturn(new boolean[] { true });
+        WordFrequencyIndex distinctWords = (WordFrequencyIndex) ReflectionTestUtils.getField(dictionaryService, "distinctWords");
+        distinctWords.increment("Batchold");
+
+        EntryOperation create = new EntryOperation(EntryOperation.Type.CREATE, null);
+        create.setWord("Batchnew");
+        create.setWordtype("n.");
+        create.setDefinition("New definition");
+        EntryOperation update = new EntryOperation(EntryOperation.Type.UPDATE, 42L);
+        update.setWord("Batchrenamed");
+        update.setWordtype("n.");
+        update.setDefinition("Old definition");
+        BatchResult result = dictionaryService.applyBatch(Arrays.asList(create, update));
+
+        assertTrue(result.isApplied());
+        assertEquals(201, result.getResults().get(0).getStatus());
+        assertEquals(43L, result.getResults().get(0).getId());
+        assertEquals(200, result.getResults().get(1).getStatus());
+        verify(transactionManager, times(1)).commit(any());
+        verify(mockedEntryBatchRepository, times(1)).deleteAllByIds(Collections.emptySet());
+        verify(mockedEntryBatchRepository, times(1)).updateAll(argThat(entries -> entries.size() == 1
+                && entries.get(0).getId() == 42L && entries.get(0).getWord().equals("Batchrenamed")));
+        assertEquals(1, distinctWords.getCount("Batchnew"));
+        assertEquals(1, distinctWords.getCount("Batchrenamed"));
+        assertEquals(0, distinctWords.getCount("Batchold"));
+
+        when(mockedEntryBatchRepository.updateAll(any())).thenReturn(new boolean[] { false });
+        result = dictionaryService.applyBatch(Arrays.asList(create, update));
+        assertFalse(result.isApplied());
+        assertEquals(424, result.getResults().get(0).getStatus());
+        assertEquals(409, result.getResults().get(1).getStatus());
+        assertEquals(1, distinctWords.getCount("Batchnew"));
+
+        EntryOperation delete = new EntryOperation(EntryOperation.Type.DELETE, 42L);
+        result = dictionaryService.applyBatch(Arrays.asList(update, delete, new EntryOperation(EntryOperation.Type.PATCH, 7L)));
+        assertFalse(result.isApplied());
+        assertEquals("Entry with id \"42\" is changed more than once", result.getResults().get(1).getMessage());
+        assertEquals("Definition is NULL", result.getResults().get(2).getMessage());
+        verify(mockedEntryBatchRepository, times(2)).findAllByIdsForUpdate(any());
+    }
+
+    @Test
+    public void whenExportCsv_thenStreamedEntriesWritten() throws IOException {
+        Entry quotedEntry = new Entry();
+        quotedEntry.setWord("Quote");
+        quotedEntry.setWordtype("n.");
+        quotedEntry.setDefinition("A \"quoted\", definition");
+        when(mockedEntryRepository.streamAll(any(), anyInt())).thenReturn(Stream.of(testEntry, quotedEntry));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        dictionaryService.exportEntries(output, ExportFormat.CSV, 'q', null);
+        assertEquals("word,wordtype,definition\r\n" +
+                "TestEntry,test.,Test definition\r\n" +
+                "Quote,n.,\"A \"\"quoted\"\", definition\"\r\n", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void whenLookupWords_thenFoundInOneQueryAndMissesSuggested() {
+        clearInvocations(mockedEntryRepository);
+        when(mockedEntryRepository.findAll(ArgumentMatchers.<Specification<Entry>>any())).thenReturn(Collections.singletonList(testEntry));
+
+        WordLookup typedLookup = new WordLookup("testentry");
+        typedLookup.setType("TEST.");
+        WordLookup otherTypeLookup = new WordLookup("Missing");
+        otherTypeLookup.setType("n.");
+        LookupResult result = dictionaryService.lookupWords(Arrays.asList(typedLookup, new WordLookup("testentry"),
+                new WordLookup("TestEntyr"), otherTypeLookup));
+
+        verify(mockedEntryRepository, times(1)).findAll(ArgumentMatchers.<Specification<Entry>>any());
+        assertEquals(Collections.singletonList(testEntry), result.getEntries().get("testentry"));
+        assertEquals(Collections.singletonList("TestEntry"), result.getSuggestions().get("TestEntyr"));
+        assertEquals(Collections.emptyList(), result.getSuggestions().get("Missing"));
+        assertThrows(BadResourceException.class, () -> dictionaryService.lookupWords(Collections.emptyList()));
+        assertThrows(BadResourceException.class, () -> dictionaryService.lookupWords(Collections.singletonList(new WordLookup(" "))));
+    }
+
+    @Test
+    public void givenMemoryResident_whenReadAndWritten_thenSnapshotServesReads() {
+        Entry springEntry = new Entry();
+        springEntry.setId(7L);
+        springEntry.setWord("Spring");
+        springEntry.setWordtype("n.");
+        springEntry.setDefinition("A season of the year.");
+        ReflectionTestUtils.setField(dictionaryService, "memoryResident", true);
+        ReflectionTestUtils.setField(dictionaryService, "snapshot", DictionarySnapshot.of(Arrays.asList(testEntry, springEntry)));
+        try {
+            clearInvocations(mockedEntryRepository);
+            assertEquals(springEntry, dictionaryService.findById(7L));
+            assertEquals(2, dictionaryService.findAll(0, 1).getTotalElements());
+            assertEquals(Collections.singletonList(springEntry), dictionaryService.findByType("N.", 0, 10).getContent());
+            CursorPage<Entry> firstPage = dictionaryService.findAll((String) null, 1);
+            assertEquals(Collections.singletonList(springEntry), firstPage.getContent());
+            assertEquals(Collections.singletonList(testEntry), dictionaryService.findAll(firstPage.getNext(), 1).getContent());
+            verify(mockedEntryRepository, never()).findById(any());
+            verify(mockedEntryRepository, never()).findAll(ArgumentMatchers.<Specification<Entry>>any(), any(PageRequest.class));
+
+            //  a concurrent update of the same entry committed after this one, the snapshot keeps its value
+            Entry writtenEntry = new Entry();
+            writtenEntry.setId(7L);
+            writtenEntry.setWord("Spring");
+            writtenEntry.setWordtype("n.");
+            writtenEntry.setDefinition("A season.");
+            Entry committedEntry = new Entry();
+            committedEntry.setId(7L);
+            committedEntry.setWord("Spring");
+            committedEntry.setWordtype("n.");
+            committedEntry.setDefinition("A season after winter.");
+            when(mockedEntryRepository.findById(7L)).thenReturn(Optional.of(writtenEntry));
+            when(mockedEntryBatchRepository.findAllByIds(Collections.singleton(7L))).thenReturn(Collections.singletonList(committedEntry));
+            dictionaryService.updateDefinitionById(7L, "A season.");
+            assertEquals("A season after winter.", dictionaryService.findById(7L).getDefinition());
+
+            when(mockedEntryBatchRepository.findAllByIds(Collections.singleton(7L))).thenReturn(Collections.emptyList());
+            dictionaryService.deleteById(7L);
+            assertThrows(ResourceNotFoundException.class, () -> dictionaryService.findByWord("spring", 0, 10));
+        } finally {
+            ReflectionTestUtils.setField(dictionaryService, "memoryResident", false);
+            ReflectionTestUtils.setField(dictionaryService, "snapshot", null);
+        }
+    }
+
+    @Test
+    public void givenCompleteWordIndex_whenAbsentWordRequested_thenNoQuery() {
+        ReflectionTestUtils.setField(dictionaryService, "wordsComplete", true);
+        try {
+            clearInvocations(mockedEntryRepository);
+            assertTrue(dictionaryService.findByWordIfPresent("Qwertyuiop", 0, 10).isEmpty());
+            Exception exception = assertThrows(ResourceNotFoundException.class, () -> dictionaryService.findByWord("Qwertyuiop", 0, 10));
+            assertEquals(0, exception.getStackTrace().length);
+            verify(mockedEntryRepository, never()).findAll(any(Specification.class), any(PageRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(dictionaryService, "wordsComplete", false);
+        }
+    }
+
     @Test
     public void whenFuzzySearchRequest_thenContainsResult() {
         testEntry.setWord("Spring");
 
-        when(mockedEntryRepository.save(testEntry)).thenReturn(testEntry);
+        when(mockedEntryRepository.insertIfAbsent(testEntry)).thenReturn(Optional.of(1234567L));
 
         dictionaryService.addNewEntry(testEntry);
+        double fuzzyFallbacks = meterRegistry.counter("dictionary.fuzzy.fallbacks").count();
         assertTrue(dictionaryService.getFuzzyEntries("Sprnig").getContent().contains("Spring"));
+        assertEquals(fuzzyFallbacks + 1, meterRegistry.counter("dictionary.fuzzy.fallbacks").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void whenFuzzySearchRepeated_thenScoredOnceUntilWrite() {
+        testEntry.setWord("Dictionary");
+        when(mockedEntryRepository.insertIfAbsent(testEntry)).thenReturn(Optional.of(1234567L));
+        dictionaryService.addNewEntry(testEntry);
+
+        Cache<String, List<String>> fuzzyCache = (Cache<String, List<String>>) ReflectionTestUtils.getField(dictionaryService, "fuzzyCache");
+        long misses = fuzzyCache.stats().missCount();
+        assertTrue(dictionaryService.getFuzzyEntries("Dictoinary").getContent().contains("Dictionary"));
+        assertTrue(dictionaryService.getFuzzyEntries("DICTOINARY").getContent().contains("Dictionary"));
+        assertEquals(misses + 1, fuzzyCache.stats().missCount());
+
+        Entry newEntry = new Entry();
+        newEntry.setId(7654321L);
+        newEntry.setWord("Dictionaries");
+        newEntry.setWordtype("n. pl.");
+        newEntry.setDefinition("Test definition");
+        when(mockedEntryRepository.insertIfAbsent(newEntry)).thenReturn(Optional.of(7654321L));
+        dictionaryService.addNewEntry(newEntry);
+        assertTrue(dictionaryService.getFuzzyEntries("Dictoinary").getContent().contains("Dictionary"));
+        assertEquals(misses + 2, fuzzyCache.stats().missCount());
     }
 
 }
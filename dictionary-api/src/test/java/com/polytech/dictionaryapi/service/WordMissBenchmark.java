@@ -0,0 +1,103 @@
+package com.polytech.dictionaryapi.service;
+
+import com.polytech.dictionaryapi.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ *  Compares latency of word search misses over the whole OPTED dictionary from dictionary-postgres image:
+ *  before - page and count queries and ResourceNotFoundException with stack trace, like it was before the word filter
+ *  after - Bloom filter of the word index answers without DB and without exception
+ *  run with 'gradlew benchmark', results are printed to standard output
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ContextConfiguration(initializers = { WordMissBenchmark.Initializer.class })
+public class WordMissBenchmark {
+
+    private static final int PER_PAGE = 10;
+    private static final int ITERATIONS = 200;
+
+    private static RuntimeException missed;
+
+    @Container
+    public static PostgreSQLContainer<?> dictionaryContainer = new PostgreSQLContainer<>("dictionary-postgres");
+
+    @Autowired
+    private DictionaryService dictionaryService;
+
+    @BeforeAll
+    static void init() {
+        dictionaryContainer.start();
+    }
+
+    @AfterAll
+    static void shutDown() {
+        dictionaryContainer.stop();
+    }
+
+    @Test
+    public void benchmarkWordMisses() {
+        DictionaryService target = AopTestUtils.getTargetObject(dictionaryService);
+        assertTrue((Boolean) ReflectionTestUtils.getField(target, "wordsComplete"), "Word index isn't loaded");
+
+        ReflectionTestUtils.setField(target, "wordsComplete", false);
+        double beforeMillis = measure(word -> {
+            try {
+                dictionaryService.findByWord(word, 0, PER_PAGE);
+                fail("Word \"" + word + "\" is found");
+            } catch (ResourceNotFoundException ex) {
+                missed = new RuntimeException(ex.getMessage());  //  ResourceNotFoundException used to capture stack trace
+            }
+        });
+        ReflectionTestUtils.setField(target, "wordsComplete", true);
+        double afterMillis = measure(word -> assertFalse(dictionaryService.findByWordIfPresent(word, 0, PER_PAGE).hasContent()));
+
+        System.out.println(format("%-10s %14s %14s", "", "before, ms", "after, ms"));
+        System.out.println(format("%-10s %14.4f %14.4f", "word miss", beforeMillis, afterMillis));
+    }
+
+    private static double measure(Consumer<String> search) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.accept("Abandn" + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.accept("Abandnx" + i);
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            TestPropertyValues.of(
+                    "spring.datasource.url=" + format("jdbc:postgresql://%s:%d/dictionary_db?loggerLevel=OFF", dictionaryContainer.getContainerIpAddress(), dictionaryContainer.getMappedPort(5432)),
+                    "spring.datasource.username=" + dictionaryContainer.getUsername(),
+                    "spring.datasource.password=" + dictionaryContainer.getPassword(),
+                    "dictionary.words.snapshot-file="
+            ).applyTo(applicationContext.getEnvironment());
+        }
+    }
+}